@@ -0,0 +1,69 @@
+package frc.robot.Utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+/**
+ * Benchmark for ShotPredictor.predict, the per-loop aiming call in AimAtHubCommand.
+ * ShotPredictor reads the alliance in its static initializer, so the sim HAL is
+ * started with a blue alliance before the class is first touched.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShotPredictorBenchmark {
+
+    private static final Pose2d[] POSES = {
+        new Pose2d(1.5, 4.0, Rotation2d.fromDegrees(0)),
+        new Pose2d(2.5, 2.0, Rotation2d.fromDegrees(45)),
+        new Pose2d(3.0, 6.5, Rotation2d.fromDegrees(-120)),
+        new Pose2d(1.0, 1.0, Rotation2d.fromDegrees(170)),
+    };
+
+    private int index = 0;
+    private Supplier<Pose2d> poseSupplier;
+    private Supplier<ChassisSpeeds> velSupplier;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HAL.initialize(500, 0);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+
+        HubShooterTrajectoryCalc.initializeCache();
+
+        ChassisSpeeds speeds = new ChassisSpeeds(1.5, -2.0, 1.2);
+        poseSupplier = () -> POSES[index];
+        velSupplier = () -> speeds;
+    }
+
+    @Benchmark
+    public ShotPredictor.Shot predict() {
+        index = (index + 1) % POSES.length;
+        return ShotPredictor.predict(poseSupplier, velSupplier);
+    }
+}
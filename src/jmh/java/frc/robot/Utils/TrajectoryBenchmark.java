@@ -0,0 +1,130 @@
+package frc.robot.Utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the trajectory solvers and cache lookups.
+ * Distances cycle through a fixed set so results can't be constant-folded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrajectoryBenchmark {
+
+    private static final double ROLLER_DIAMETER_M = 0.0508;  // matches HubShooterTrajectoryCalc
+
+    private static final double[] DISTANCES_M = {1.3, 2.1, 2.9, 3.6, 4.4, 5.2, 6.0, 6.8, 7.5};
+
+    private HubShooterTrajectoryCalc sweepCalc;
+    private HubShooterTrajectoryCalc scalarSweepCalc;
+    private HubShooterTrajectoryCalc newtonCalc;
+    private HubShooterTrajectoryCalc hintCalc;
+    private RawTrajectoryCalc rawCalc;
+    private MovingHubShooterTrajectory movingIterative;
+    private MovingHubShooterTrajectory movingPolynomial;
+    private final HubShooterTrajectoryCalc.MutableShotSolution solution =
+        new HubShooterTrajectoryCalc.MutableShotSolution();
+    private int index = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HubShooterTrajectoryCalc.initializeCache();
+
+        sweepCalc = new HubShooterTrajectoryCalc();
+        scalarSweepCalc = new HubShooterTrajectoryCalc();
+        scalarSweepCalc.setBatchSimulation(false);
+        newtonCalc = new HubShooterTrajectoryCalc();
+        newtonCalc.setSolverMode(HubShooterTrajectoryCalc.SolverMode.NEWTON);
+        hintCalc = new HubShooterTrajectoryCalc();
+        rawCalc = new RawTrajectoryCalc();
+
+        movingIterative = new MovingHubShooterTrajectory();
+        movingIterative.initialize();
+        movingIterative.setLeadMode(MovingHubShooterTrajectory.LeadMode.ITERATIVE);
+        movingPolynomial = new MovingHubShooterTrajectory();
+        movingPolynomial.initialize();
+        movingPolynomial.setLeadMode(MovingHubShooterTrajectory.LeadMode.POLYNOMIAL);
+    }
+
+    private double nextDistance() {
+        index = (index + 1) % DISTANCES_M.length;
+        return DISTANCES_M[index];
+    }
+
+    @Benchmark
+    public boolean hubRunSweep() {
+        sweepCalc.setHubDistanceM(nextDistance());
+        return sweepCalc.run();
+    }
+
+    @Benchmark
+    public boolean hubRunSweepScalar() {
+        scalarSweepCalc.setHubDistanceM(nextDistance());
+        return scalarSweepCalc.run();
+    }
+
+    @Benchmark
+    public boolean hubRunNewton() {
+        newtonCalc.setHubDistanceM(nextDistance());
+        return newtonCalc.run();
+    }
+
+    @Benchmark
+    public boolean hubRunWithHint() {
+        double distance = nextDistance();
+        HubShooterTrajectoryCalc.lookupInto(distance + 0.1, solution);
+        hintCalc.setHubDistanceM(distance);
+        return hintCalc.runWithHint(solution.elevation_deg, solution.speed_rps * Math.PI * ROLLER_DIAMETER_M);
+    }
+
+    @Benchmark
+    public HubShooterTrajectoryCalc.CacheEntry lookupCache() {
+        return HubShooterTrajectoryCalc.lookupCache(nextDistance());
+    }
+
+    @Benchmark
+    public double lookupInto() {
+        HubShooterTrajectoryCalc.lookupInto(nextDistance(), solution);
+        return solution.speed_rps;
+    }
+
+    @Benchmark
+    public boolean movingRunIterative() {
+        return runMoving(movingIterative);
+    }
+
+    @Benchmark
+    public boolean movingRunPolynomial() {
+        return runMoving(movingPolynomial);
+    }
+
+    private boolean runMoving(MovingHubShooterTrajectory shooter) {
+        double distance = nextDistance();
+        shooter.setRobotPosition(4.03 - distance, 3.0);
+        shooter.setRobotVelocity(1.5, 2.5);
+        return shooter.run();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1, time = 5)
+    @Measurement(iterations = 3, time = 5)
+    public boolean rawRun() {
+        rawCalc.setTargetDistanceM(5.0 + nextDistance());
+        return rawCalc.run();
+    }
+}
@@ -0,0 +1,198 @@
+package frc.robot.Actors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Import WPILib Libraries
+import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+// Import Constants
+import frc.robot.Constants.PowerConstants;
+
+/**
+ * Shares the battery between subsystems so the robot stays out of brownout.
+ *
+ * The battery is treated as an open-circuit voltage behind a resistance. From the PDH
+ * voltage and total current that gives the most current the robot can pull before the
+ * voltage sags to PowerConstants.minBatteryVoltage_V. The drivetrain is never limited
+ * here; its measured draw (plus anything not managed) is reserved first. What's left is
+ * split between the managed groups in the order they were added: every motor gets its
+ * floor, then each group in turn is topped up towards the limit its motors were built
+ * with. With a healthy battery everyone keeps their full limit; as it sags the intake is
+ * cut first and the shooter last.
+ *
+ * Limits go out through Motor.setSupplyCurrentLimit (non-blocking) and only when they
+ * move by more than LIMIT_STEP_A, or back to the full limit. Each group's planned limit is
+ * published under CurrentBudget/ on the dashboard. While PowerConstants.currentBudgetEnabled
+ * is false nothing is sent to the motors; the dashboard shows what would have been.
+ */
+public class CurrentBudget {
+
+    // ========== CONSTANTS ==========
+    private static final double UPDATE_PERIOD_S = 0.1;
+    private static final double LIMIT_STEP_A = 5.0;         // Smaller changes aren't worth a config
+    private static final double DRIVE_MARGIN = 1.25;        // Drivetrain draw reserved, with room to accelerate
+    private static final double FILTER_GAIN = 0.3;          // Per update, on the available current estimate
+
+    /** Motors sharing one allocation */
+    private static class Group {
+        final String name;
+        final int[] channels;
+        final double floor_A;
+        final Motor[] motors;
+        final String dashboardKey;
+
+        Group(String name, int[] channels, double floor_A, Motor[] motors) {
+            this.name = name;
+            this.channels = channels;
+            this.floor_A = floor_A;
+            this.motors = motors;
+            this.dashboardKey = "CurrentBudget/" + name + "_A";
+        }
+    }
+
+    private final PowerDistribution pdh;
+    private final int[] drivetrainChannels;
+    private final List<Group> groups = new ArrayList<>();   // Highest priority first
+    private double lastUpdate_s = 0.0;
+    private double available_A = Double.NaN;
+    private double reserved_A = 0.0;
+    private boolean limiting = false;
+
+    /**
+     * @param pdh                the power distribution hub
+     * @param drivetrainChannels PDH channels of the drivetrain, reserved before anything else
+     */
+    public CurrentBudget(PowerDistribution pdh, int[] drivetrainChannels) {
+        this.pdh = pdh;
+        this.drivetrainChannels = drivetrainChannels;
+        if (!PowerConstants.currentBudgetEnabled) {
+            System.out.println("CurrentBudget: disabled, publishing planned limits only");
+        }
+    }
+
+    /**
+     * Adds a group of motors to the budget. Call in priority order, highest first.
+     *
+     * @param name     for the dashboard
+     * @param channels PDH channels the motors are on
+     * @param floor_A  supply limit per motor the group is never cut below
+     * @param motors   the motors, each capped at the limit it was constructed with
+     * @return this, for chaining
+     */
+    public CurrentBudget addGroup(String name, int[] channels, double floor_A, Motor... motors) {
+        groups.add(new Group(name, channels, floor_A, motors));
+        return this;
+    }
+
+    /**
+     * Re-plans the budget. Call every loop; the work is done every UPDATE_PERIOD_S.
+     */
+    public void update() {
+        double now = Timer.getFPGATimestamp();
+        if (now - lastUpdate_s < UPDATE_PERIOD_S) {
+            return;
+        }
+        lastUpdate_s = now;
+
+        double voltage = pdh.getVoltage();
+        double total_A = pdh.getTotalCurrent();
+        double[] channels_A = pdh.getAllCurrents();
+
+        // Open-circuit voltage from the sag, then the current that would sag it to the minimum
+        double openCircuit_V = voltage + total_A * PowerConstants.batteryResistance_ohm;
+        double maxTotal_A = Math.max(0.0,
+                (openCircuit_V - PowerConstants.minBatteryVoltage_V) / PowerConstants.batteryResistance_ohm);
+        available_A = Double.isNaN(available_A) ? maxTotal_A : available_A + FILTER_GAIN * (maxTotal_A - available_A);
+
+        // Reserve the drivetrain and everything this class doesn't manage
+        double drive_A = sum(channels_A, drivetrainChannels);
+        double managed_A = 0.0;
+        for (Group group : groups) {
+            managed_A += sum(channels_A, group.channels);
+        }
+        double unmanaged_A = Math.max(0.0, total_A - drive_A - managed_A);
+        reserved_A = drive_A * DRIVE_MARGIN + unmanaged_A;
+        double remaining_A = available_A - reserved_A;
+
+        // Floors first, so a low priority group is cut, never starved
+        for (Group group : groups) {
+            remaining_A -= group.floor_A * group.motors.length;
+        }
+        // Then top up in priority order
+        limiting = false;
+        for (Group group : groups) {
+            double wanted_A = 0.0;
+            for (Motor motor : group.motors) {
+                wanted_A += Math.max(0.0, motor.getBaseSupplyCurrentLimit() - group.floor_A);
+            }
+            double extra_A = Math.min(wanted_A, Math.max(0.0, remaining_A));
+            remaining_A -= extra_A;
+            if (extra_A < wanted_A) {
+                limiting = true;
+            }
+            apply(group, (wanted_A > 0.0) ? extra_A / wanted_A : 1.0);
+        }
+
+        SmartDashboard.putNumber("CurrentBudget/Available_A", available_A);
+        SmartDashboard.putNumber("CurrentBudget/Reserved_A", reserved_A);
+        SmartDashboard.putBoolean("CurrentBudget/Limiting", limiting);
+    }
+
+    /**
+     * Sets each motor to its floor plus the same share of its headroom above the floor.
+     */
+    private void apply(Group group, double share) {
+        double groupLimit_A = 0.0;
+        for (Motor motor : group.motors) {
+            double base_A = motor.getBaseSupplyCurrentLimit();
+            double floor_A = Math.min(group.floor_A, base_A);
+            double limit_A = floor_A + share * (base_A - floor_A);
+            groupLimit_A += limit_A;
+            if (!PowerConstants.currentBudgetEnabled || motor.isPowersave()) {
+                continue;
+            }
+            double current_A = motor.getSupplyCurrentLimit();
+            boolean restoring = limit_A >= base_A && current_A != base_A;
+            if (restoring || Math.abs(limit_A - current_A) >= LIMIT_STEP_A) {
+                motor.setSupplyCurrentLimit(restoring ? base_A : limit_A);
+            }
+        }
+        SmartDashboard.putNumber(group.dashboardKey, groupLimit_A);
+    }
+
+    private static double sum(double[] currents_A, int[] channels) {
+        double total_A = 0.0;
+        for (int channel : channels) {
+            if (channel >= 0 && channel < currents_A.length) {
+                total_A += currents_A[channel];
+            }
+        }
+        return total_A;
+    }
+
+    // ========== STATUS ==========
+
+    /**
+     * @return current the battery can supply before sagging to the minimum voltage
+     */
+    public double getAvailable_A() {
+        return available_A;
+    }
+
+    /**
+     * @return current held back for the drivetrain and unmanaged loads
+     */
+    public double getReserved_A() {
+        return reserved_A;
+    }
+
+    /**
+     * @return true if any group is below its full limits
+     */
+    public boolean isLimiting() {
+        return limiting;
+    }
+}
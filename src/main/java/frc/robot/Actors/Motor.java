@@ -1,6 +1,8 @@
 package frc.robot.Actors;
 
 // Import Phoenix 6 Libraries
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.configs.Slot0Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.MotionMagicDutyCycle;
@@ -23,10 +25,23 @@ import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 import com.revrobotics.spark.SparkMax;
 import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Robot;
 // Import Actors, Utils & Constants
+import frc.robot.Utils.AsyncConfigurator;
 import frc.robot.Utils.MotorType;
+import frc.robot.Utils.BandwidthPlanner;
 import frc.robot.Utils.RotationDir;
+import frc.robot.Utils.SignalRegistry;
 
 public class Motor {
     public MotorType type;
@@ -44,6 +59,50 @@ public class Motor {
     private boolean powersave = false;
     public boolean important = false;
 
+    // Control requests are reused every loop and only sent when the setpoint moves
+    private static final double VEL_TOLERANCE_RPS = 0.01;
+    private static final double POS_TOLERANCE_ROT = 0.0005;
+    private static final double DC_TOLERANCE = 0.0005;
+    private final VelocityDutyCycle velRequest = new VelocityDutyCycle(0);
+    private final PositionDutyCycle posRequest = new PositionDutyCycle(0);
+    private final MotionMagicDutyCycle posMMRequest = new MotionMagicDutyCycle(0);
+    private ControlMode lastMode = ControlMode.None;
+    private double lastSetpoint = 0.0;
+    private double lastFeedForward = 0.0;
+
+    // TalonFX signals, refreshed once per loop by SignalRegistry; read without refreshing
+    public static final double LOOP_SIGNAL_HZ = 50.0;    // One sample per robot loop
+    private String canbus = "rio";
+    private BaseStatusSignal velSignal;
+    private BaseStatusSignal posSignal;
+    private BaseStatusSignal tempSignal;
+    private BaseStatusSignal faultSignal;
+    private BaseStatusSignal dcSignal;                  // Only declared once dc() is first read
+
+    // TalonFX configs are staged into configTFX and sent as one apply. Until
+    // applyPendingConfigs() runs at startup they are queued and then sent in parallel
+    private static final int CONFIG_THREADS = 8;          // Threads only wait on CAN acks
+    private static final int CONFIG_ATTEMPTS = 2;
+    private static boolean deferConfigs = true;
+    private static final List<Motor> pendingConfigs = new ArrayList<>();
+    private boolean configPending = false;
+    private double startPos = 0.0;
+
+    // Supply current limit switching mid-match goes through AsyncConfigurator
+    private String limitsKey;                             // Queue key, one per device
+    private double baseSupplyLimit_A;                     // Limit from construction, restored after powersave
+    private volatile double appliedSupplyLimit_A = Double.NaN;  // Last limit the device acknowledged
+    private long limitRequest = 0;                        // Bumped per queued apply, guarded by this
+
+    // Physics model behind the TalonFX in simulation, null on the robot
+    private static final DCMotor SIM_MOTOR = DCMotor.getKrakenX60(1); //?
+    private MotorSim sim;
+
+    /** Last control sent to a TalonFX, for skipping repeated setControl calls */
+    private enum ControlMode {
+        None, DutyCycle, Velocity, Position, MotionMagic
+    }
+
     public Motor(int CanID, MotorType type) {
         this.CanID = CanID;
         this.type = type;
@@ -57,12 +116,13 @@ public class Motor {
                 this.motorTFX = new TalonFX(CanID);
                 this.configTFX = new TalonFXConfiguration();
                 this.slot0TFX = new Slot0Configs();
-                this.motorTFX.getConfigurator().setPosition(0);
-                CurrentLimitsConfigs curlim = new CurrentLimitsConfigs();
-                curlim.SupplyCurrentLimit = (Robot.defense) ? 10:30;
-                curlim.SupplyCurrentLimitEnable = true;
-                this.motorTFX.getConfigurator().apply(curlim);
-                this.limitBandwidth();
+                this.configTFX.Slot0 = this.slot0TFX;
+                this.configTFX.MotionMagic = this.motionMagicConfigs;
+                this.configTFX.CurrentLimits.SupplyCurrentLimit = (Robot.defense) ? 10:30;
+                this.configTFX.CurrentLimits.SupplyCurrentLimitEnable = true;
+                this.registerSignals("rio");
+                this.limitsKey = "Motor rio/" + CanID + " current limits";
+                this.baseSupplyLimit_A = this.configTFX.CurrentLimits.SupplyCurrentLimit;
                 break;
             case None:
                 System.err.println("Motor initialized with None type with CanID " + this.CanID);
@@ -85,12 +145,13 @@ public class Motor {
                 this.motorTFX = new TalonFX(CanID, canbus);
                 this.configTFX = new TalonFXConfiguration();
                 this.slot0TFX = new Slot0Configs();
-                this.motorTFX.getConfigurator().setPosition(0);
-                CurrentLimitsConfigs curlim = new CurrentLimitsConfigs();
-                curlim.SupplyCurrentLimit = (Robot.defense) ? 10:30;
-                curlim.SupplyCurrentLimitEnable = true;
-                this.motorTFX.getConfigurator().apply(curlim);
-                this.limitBandwidth();
+                this.configTFX.Slot0 = this.slot0TFX;
+                this.configTFX.MotionMagic = this.motionMagicConfigs;
+                this.configTFX.CurrentLimits.SupplyCurrentLimit = (Robot.defense) ? 10:30;
+                this.configTFX.CurrentLimits.SupplyCurrentLimitEnable = true;
+                this.registerSignals(canbus);
+                this.limitsKey = "Motor " + canbus + "/" + CanID + " current limits";
+                this.baseSupplyLimit_A = this.configTFX.CurrentLimits.SupplyCurrentLimit;
                 break;
             case None:
                 System.err.println("Motor initialized with None type with CanID " + this.CanID);
@@ -113,14 +174,15 @@ public class Motor {
                 this.motorTFX = new TalonFX(CanID, canbus);
                 this.configTFX = new TalonFXConfiguration();
                 this.slot0TFX = new Slot0Configs();
-                this.motorTFX.getConfigurator().setPosition(0);
+                this.configTFX.Slot0 = this.slot0TFX;
+                this.configTFX.MotionMagic = this.motionMagicConfigs;
                 if (important) {
-                    CurrentLimitsConfigs curlim = new CurrentLimitsConfigs();
-                    curlim.SupplyCurrentLimit = 60;
-                    curlim.SupplyCurrentLimitEnable = true;
-                    this.motorTFX.getConfigurator().apply(curlim);
+                    this.configTFX.CurrentLimits.SupplyCurrentLimit = 60;
+                    this.configTFX.CurrentLimits.SupplyCurrentLimitEnable = true;
                 }
-                this.limitBandwidth();
+                this.registerSignals(canbus);
+                this.limitsKey = "Motor " + canbus + "/" + CanID + " current limits";
+                this.baseSupplyLimit_A = this.configTFX.CurrentLimits.SupplyCurrentLimit;
                 break;
             case None:
                 System.err.println("Motor initialized with None type with CanID " + this.CanID);
@@ -131,26 +193,122 @@ public class Motor {
         this.applyConfig();
     }
 
-    private void limitBandwidth() {
-        this.motorTFX.getDeviceTemp().setUpdateFrequency(0.1);
-        this.motorTFX.getAncillaryDeviceTemp().setUpdateFrequency(0.1);
-        this.motorTFX.getProcessorTemp().setUpdateFrequency(0.1);
+    /**
+     * Registers the signals Motor reads for the per-loop refresh and declares the rates they
+     * need. Every other signal on the device is slowed down by BandwidthPlanner.apply()
+     */
+    private void registerSignals(String canbus) {
+        this.canbus = canbus;
+        String owner = "Motor " + this.CanID;
+        this.velSignal = SignalRegistry.register(canbus,
+                BandwidthPlanner.declare(canbus, this.motorTFX.getVelocity(false), LOOP_SIGNAL_HZ, owner));
+        this.posSignal = SignalRegistry.register(canbus,
+                BandwidthPlanner.declare(canbus, this.motorTFX.getRotorPosition(false), LOOP_SIGNAL_HZ, owner));
+        this.tempSignal = SignalRegistry.register(canbus,
+                BandwidthPlanner.declare(canbus, this.motorTFX.getDeviceTemp(false), BandwidthPlanner.OPTIMIZED_HZ, owner));
+        this.faultSignal = SignalRegistry.register(canbus,
+                BandwidthPlanner.declare(canbus, this.motorTFX.getFaultField(false), BandwidthPlanner.OPTIMIZED_HZ, owner));
+        BandwidthPlanner.addDevice(canbus, this.motorTFX);
     }
 
+    /**
+     * Toggles the supply current limit between 0 (motor effectively off) and the limit
+     * it was constructed with. Doesn't block, see setSupplyCurrentLimit
+     */
     public void powersave() {
-        CurrentLimitsConfigs curlim = new CurrentLimitsConfigs();
-        if (powersave) {
-            if (important) {
-                curlim.SupplyCurrentLimit = 60;
-            } else {
-                curlim.SupplyCurrentLimit = (Robot.defense) ? 10:30;
+        powersave = !powersave;
+        this.setSupplyCurrentLimit((powersave) ? 0.0 : this.baseSupplyLimit_A);
+    }
+
+    /**
+     * Sets the supply current limit without blocking the loop. The apply is queued on
+     * AsyncConfigurator, replacing any apply for this motor that hasn't gone out yet, and
+     * the limit is staged into configTFX once it is queued. Does nothing if the limit is
+     * already queued or acknowledged; a dropped submit or a failed apply leaves it
+     * unstaged, so the next call sends it again.
+     * 
+     * @param limit_A supply current limit in amps
+     */
+    public void setSupplyCurrentLimit(double limit_A) {
+        if (this.type != MotorType.TFX) {
+            return;
+        }
+        synchronized (this) {
+            if (limit_A == this.configTFX.CurrentLimits.SupplyCurrentLimit
+                    && (limit_A == this.appliedSupplyLimit_A || this.isConfigPending())) {
+                return;
+            }
+        }
+        synchronized (Motor.class) {
+            if (deferConfigs) {
+                this.configTFX.CurrentLimits.SupplyCurrentLimit = limit_A;
+                this.configTFX.CurrentLimits.SupplyCurrentLimitEnable = true;
+                return;     // Goes out with the startup batch
             }
-        } else {
-            curlim.SupplyCurrentLimit = 0;
         }
-        powersave=!powersave;
-        curlim.SupplyCurrentLimitEnable = true;
-        this.motorTFX.getConfigurator().apply(curlim);
+
+        // Copy so the worker sends exactly what was asked for now
+        CurrentLimitsConfigs limits = new CurrentLimitsConfigs();
+        limits.SupplyCurrentLimit = limit_A;
+        limits.SupplyCurrentLimitEnable = true;
+        limits.SupplyCurrentLowerLimit = this.configTFX.CurrentLimits.SupplyCurrentLowerLimit;
+        limits.SupplyCurrentLowerTime = this.configTFX.CurrentLimits.SupplyCurrentLowerTime;
+        limits.StatorCurrentLimit = this.configTFX.CurrentLimits.StatorCurrentLimit;
+        limits.StatorCurrentLimitEnable = this.configTFX.CurrentLimits.StatorCurrentLimitEnable;
+        synchronized (this) {
+            long request = ++this.limitRequest;
+            boolean queued = AsyncConfigurator.submit(this.limitsKey, () -> {
+                StatusCode status = this.motorTFX.getConfigurator().apply(limits);
+                synchronized (this) {
+                    if (status.isOK()) {
+                        this.appliedSupplyLimit_A = limit_A;
+                    } else if (request == this.limitRequest && !Double.isNaN(this.appliedSupplyLimit_A)) {
+                        // Nothing newer queued: unstage so the next call retries
+                        this.configTFX.CurrentLimits.SupplyCurrentLimit = this.appliedSupplyLimit_A;
+                    }
+                }
+                return status;
+            });
+            if (queued) {
+                this.configTFX.CurrentLimits.SupplyCurrentLimit = limit_A;
+                this.configTFX.CurrentLimits.SupplyCurrentLimitEnable = true;
+            }
+        }
+    }
+
+    /**
+     * @return true while powersave has the motor's current limit at 0
+     */
+    public boolean isPowersave() {
+        return this.powersave;
+    }
+
+    /**
+     * @return the supply current limit last queued or applied; a failed apply rolls this back
+     */
+    public double getSupplyCurrentLimit() {
+        return (this.type == MotorType.TFX) ? this.configTFX.CurrentLimits.SupplyCurrentLimit : 0.0;
+    }
+
+    /**
+     * @return the supply current limit the device last acknowledged, NaN before the first
+     */
+    public double getAppliedSupplyCurrentLimit() {
+        return this.appliedSupplyLimit_A;
+    }
+
+    /**
+     * @return the limit the motor was constructed with (defense / important)
+     */
+    public double getBaseSupplyCurrentLimit() {
+        return this.baseSupplyLimit_A;
+    }
+
+    /**
+     * @return true while a current limit change is queued or being sent
+     */
+    public boolean isConfigPending() {
+        return this.limitsKey != null && AsyncConfigurator.isPending(this.limitsKey);
     }
 
     // public Motor(int CanID, MotorType type, String actuatorName) {
@@ -190,6 +348,7 @@ public class Motor {
                 this.motorSPX.set(dutyCycle);
                 break;
             case TFX:
+                if (!controlChanged(ControlMode.DutyCycle, dutyCycle, 0.0, DC_TOLERANCE)) break;
                 this.motorTFX.set(dutyCycle);
                 break;
             case None:
@@ -197,6 +356,20 @@ public class Motor {
         }
     }
 
+    /**
+     * Keeps another TalonFX signal at the loop rate and refreshes it with this motor's others.
+     * Anything read off motorTFX without going through here is slowed to
+     * BandwidthPlanner.OPTIMIZED_HZ by BandwidthPlanner.apply().
+     * 
+     * @param signal the signal, fetched with refresh = false
+     * @param owner  who needs it, for the bandwidth report
+     * @return the same signal; read it with getValue()/getValueAsDouble()
+     */
+    public <T extends BaseStatusSignal> T loopSignal(T signal, String owner) {
+        signal.refresh();   // Valid before the first loop refresh
+        return SignalRegistry.register(canbus, BandwidthPlanner.declare(canbus, signal, LOOP_SIGNAL_HZ, owner));
+    }
+
     /**
      * Gets the duty cycle of the motor
      * 
@@ -207,7 +380,10 @@ public class Motor {
             case SPX:
                 return this.motorSPX.get();
             case TFX:
-                return this.motorTFX.get();
+                if (this.dcSignal == null) {
+                    this.dcSignal = loopSignal(this.motorTFX.getDutyCycle(false), "Motor " + this.CanID);
+                }
+                return this.dcSignal.getValueAsDouble();
             default:
                 return 0.0;
         }
@@ -227,11 +403,12 @@ public class Motor {
             case TFX:
                 // this.motorTFX.set(motor_rPs);
                 if (Math.abs(motor_rPs) > 0.1) {
-                    VelocityDutyCycle controlRequest = new VelocityDutyCycle(motor_rPs);
                     desiredSpeed_rPs = motor_rPs;
-                    actualSpeed_rPs = motorTFX.getVelocity().getValueAsDouble();
-                    motorTFX.setControl(controlRequest);
-                } else {
+                    actualSpeed_rPs = velSignal.getValueAsDouble();
+                    if (controlChanged(ControlMode.Velocity, motor_rPs, 0.0, VEL_TOLERANCE_RPS)) {
+                        motorTFX.setControl(velRequest.withVelocity(motor_rPs));
+                    }
+                } else if (controlChanged(ControlMode.DutyCycle, 0.0, 0.0, DC_TOLERANCE)) {
                     motorTFX.set(0.0);
                 }
 
@@ -253,9 +430,9 @@ public class Motor {
                 motorSPX.getClosedLoopController().setSetpoint(pos, ControlType.kPosition, ClosedLoopSlot.kSlot0, 0);
                 break;
             case TFX:
-                PositionDutyCycle controlRequest = new PositionDutyCycle(pos);
-                controlRequest.FeedForward = 0;
-                motorTFX.setControl(controlRequest);
+                if (controlChanged(ControlMode.Position, pos, 0.0, POS_TOLERANCE_ROT)) {
+                    motorTFX.setControl(posRequest.withPosition(pos).withFeedForward(0));
+                }
                 break;
             case None:
                 System.err.println("tried to set pos on None motor with CanID " + this.CanID);
@@ -275,9 +452,9 @@ public class Motor {
                 motorSPX.getClosedLoopController().setSetpoint(pos, ControlType.kPosition, ClosedLoopSlot.kSlot0, ff);
                 break;
             case TFX:
-                PositionDutyCycle controlRequest = new PositionDutyCycle(pos);
-                controlRequest.FeedForward = ff;
-                motorTFX.setControl(controlRequest);
+                if (controlChanged(ControlMode.Position, pos, ff, POS_TOLERANCE_ROT)) {
+                    motorTFX.setControl(posRequest.withPosition(pos).withFeedForward(ff));
+                }
                 break;
             case None:
                 System.err.println("tried to set pos on None motor with CanID " + this.CanID);
@@ -297,14 +474,40 @@ public class Motor {
                 motorSPX.getClosedLoopController().setSetpoint(pos, ControlType.kPosition, ClosedLoopSlot.kSlot0);
                 break;
             case TFX:
-                MotionMagicDutyCycle controlRequest = new MotionMagicDutyCycle(pos);
-                motorTFX.setControl(controlRequest);
+                if (controlChanged(ControlMode.MotionMagic, pos, 0.0, POS_TOLERANCE_ROT)) {
+                    motorTFX.setControl(posMMRequest.withPosition(pos));
+                }
                 break;
             case None:
                 System.err.println("tried to set pos on None motor with CanID " + this.CanID);
         }
     }
 
+    /**
+     * Records the control about to be sent to the TalonFX.
+     * 
+     * @return false if the same mode was last sent with a setpoint within tolerance
+     *         and the same feedforward, so setControl can be skipped (the device keeps
+     *         running the last request)
+     */
+    private boolean controlChanged(ControlMode mode, double setpoint, double ff, double tolerance) {
+        if (mode == lastMode && Math.abs(setpoint - lastSetpoint) <= tolerance && ff == lastFeedForward) {
+            return false;
+        }
+        lastMode = mode;
+        lastSetpoint = setpoint;
+        lastFeedForward = ff;
+        return true;
+    }
+
+    /**
+     * Forces the next control call to be sent, e.g. after something else commanded the
+     * TalonFX directly
+     */
+    public void resendControl() {
+        this.lastMode = ControlMode.None;
+    }
+
     /**
      * Gets the position of the motor
      * 
@@ -315,7 +518,7 @@ public class Motor {
             case SPX:
                 return this.motorSPX.getEncoder().getPosition();
             case TFX:
-                return this.motorTFX.getRotorPosition().getValueAsDouble();
+                return this.posSignal.getValueAsDouble();
             default:
                 return 0.0;
         }
@@ -332,6 +535,7 @@ public class Motor {
                 this.motorSPX.getEncoder().setPosition(position);
             case TFX:
                 this.motorTFX.setPosition(position);
+                this.lastMode = ControlMode.None;
             default:
                 System.err.println("tried to reset pos on None motor with CanID " + this.CanID);
         }
@@ -347,7 +551,7 @@ public class Motor {
             case SPX:
                 return this.motorSPX.getEncoder().getVelocity();
             case TFX:
-                return this.motorTFX.getVelocity().getValueAsDouble();
+                return this.velSignal.getValueAsDouble();
             default:
                 return 0.0;
         }
@@ -363,7 +567,7 @@ public class Motor {
             case SPX:
                 return (short) 0 != motorSPX.getFaults().rawBits;
             case TFX:
-                return 0 != motorTFX.getFaultField().getValueAsDouble();
+                return 0 != faultSignal.getValueAsDouble();
             default:
                 return false;
         }
@@ -374,7 +578,7 @@ public class Motor {
             case SPX:
                 return motorSPX.getMotorTemperature();
             case TFX:
-                return motorTFX.getDeviceTemp().getValueAsDouble();
+                return tempSignal.getValueAsDouble();
             default:
                 return 0.0;
         }
@@ -398,7 +602,7 @@ public class Motor {
                 this.slot0TFX.kP = p;
                 this.slot0TFX.kI = i;
                 this.slot0TFX.kD = d;
-                this.motorTFX.getConfigurator().apply(this.slot0TFX);
+                this.commitConfig();
                 break;
             case None:
                 System.err.println("tried to set pid on None motor with CanID " + this.CanID);
@@ -425,12 +629,11 @@ public class Motor {
                 this.slot0TFX.kD = d;
                 this.slot0TFX.kS = s;
                 this.slot0TFX.kV = v;
-                this.motorTFX.getConfigurator().apply(this.slot0TFX);
 
                 motionMagicConfigs.MotionMagicCruiseVelocity = vel;
                 motionMagicConfigs.MotionMagicAcceleration = acc;
 
-                motorTFX.getConfigurator().apply(motionMagicConfigs);
+                this.commitConfig();
                 break;
             case None:
                 System.err.println("tried to set pid on None motor with CanID " + this.CanID);
@@ -454,7 +657,8 @@ public class Motor {
                     break;
                 case TFX:
                     this.motorConfig.brake = brake;
-                    this.motorTFX.setNeutralMode((brake) ? NeutralModeValue.Brake : NeutralModeValue.Coast);
+                    this.configTFX.MotorOutput.NeutralMode = (brake) ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+                    this.motorTFX.setNeutralMode(this.configTFX.MotorOutput.NeutralMode);
                     break;
                 case None:
                     System.err.println("tried to set brake mode on None motor with CanID " + this.CanID);
@@ -482,13 +686,161 @@ public class Motor {
                 this.configTFX.HardwareLimitSwitch.ReverseLimitEnable = this.motorConfig.reverseLimitSwitchEnabled;
                 this.configTFX.OpenLoopRamps.DutyCycleOpenLoopRampPeriod = this.motorConfig.dutyCycleOpenLoopRampPeriod;
                 this.configTFX.ClosedLoopRamps.DutyCycleClosedLoopRampPeriod = this.motorConfig.dutyCycleClosedLoopRampPeriod;
-                this.motorTFX.getConfigurator().apply(configTFX);
+                this.commitConfig();
                 break;
             case None:
                 System.err.println("tried to apply motor config on None motor with CanID " + this.CanID);
         }
     }
 
+    // ========== CONFIG BATCHING ==========
+
+    /**
+     * Sets the position the encoder is set to when the config is applied, instead of a
+     * separate blocking setPosition from the constructor
+     * 
+     * @param pos the starting position, usually motor rotations
+     */
+    public void setStartPos(double pos) {
+        this.startPos = pos;
+        synchronized (Motor.class) {
+            if (deferConfigs) {
+                return;
+            }
+        }
+        this.motorTFX.setPosition(pos);
+    }
+
+    /**
+     * Sends configTFX (which holds slot0, motion magic and current limits) in one apply,
+     * or queues it for applyPendingConfigs() during startup. Repeated commits while
+     * queued cost nothing, the latest state is what gets sent.
+     */
+    private void commitConfig() {
+        synchronized (Motor.class) {
+            if (deferConfigs) {
+                if (!this.configPending) {
+                    this.configPending = true;
+                    pendingConfigs.add(this);
+                }
+                return;
+            }
+        }
+        StatusCode status = this.sendConfig();
+        if (!status.isOK()) {
+            System.out.println("Motor: config of CanID " + this.CanID + " failed: " + status);
+        }
+    }
+
+    private StatusCode sendConfig() {
+        StatusCode status = StatusCode.OK;
+        for (int attempt = 0; attempt < CONFIG_ATTEMPTS; attempt++) {
+            status = this.motorTFX.getConfigurator().apply(this.configTFX);
+            if (status.isOK()) {
+                this.appliedSupplyLimit_A = this.configTFX.CurrentLimits.SupplyCurrentLimit;
+                break;
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Applies every config queued since boot, one apply plus one setPosition per device,
+     * with the devices done in parallel. Call once after every subsystem is constructed;
+     * configs after this are applied as they're made.
+     */
+    public static void applyPendingConfigs() {
+        List<Motor> batch;
+        synchronized (Motor.class) {
+            batch = new ArrayList<>(pendingConfigs);
+            pendingConfigs.clear();
+            deferConfigs = false;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        double start_s = Timer.getFPGATimestamp();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(batch.size(), CONFIG_THREADS));
+        List<Future<StatusCode>> results = new ArrayList<>();
+        for (Motor motor : batch) {
+            results.add(pool.submit(() -> {
+                motor.configPending = false;
+                motor.motorTFX.setPosition(motor.startPos);
+                return motor.sendConfig();
+            }));
+        }
+
+        int failed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                StatusCode status = results.get(i).get();
+                if (!status.isOK()) {
+                    failed++;
+                    System.out.println("Motor: config of CanID " + batch.get(i).CanID + " failed: " + status);
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                failed++;
+                System.out.println("Motor: config of CanID " + batch.get(i).CanID + " failed: " + e);
+            }
+        }
+        pool.shutdown();
+        System.out.printf("Motor: configured %d devices in %.2f s (%d failed)%n",
+                batch.size(), Timer.getFPGATimestamp() - start_s, failed);
+    }
+
+    // ========== SIMULATION ==========
+
+    /**
+     * Simulates the motor driving something that holds a position (turret, hood, arm).
+     * Does nothing on the robot.
+     * 
+     * @param moi_kgm2 moment of inertia at the mechanism
+     * @param gearing  motor rotations per mechanism rotation
+     */
+    public void simMechanism(double moi_kgm2, double gearing) {
+        if (canSimulate()) {
+            this.sim = MotorSim.mechanism(this, SIM_MOTOR, moi_kgm2, gearing);
+        }
+    }
+
+    /**
+     * Simulates the motor spinning a roller or flywheel. Does nothing on the robot.
+     * 
+     * @param moi_kgm2   moment of inertia of the wheel
+     * @param gearing    motor rotations per wheel rotation
+     * @param motorCount motors driving the wheel, counting followers
+     */
+    public void simFlywheel(double moi_kgm2, double gearing, int motorCount) {
+        if (canSimulate()) {
+            this.sim = MotorSim.flywheel(this, DCMotor.getKrakenX60(motorCount), moi_kgm2, gearing);
+        }
+    }
+
+    /**
+     * Simulates a follower by copying the leader's rotor. Call after the leader's sim is
+     * set up. Does nothing on the robot.
+     * 
+     * @param leader  the motor being followed
+     * @param opposed true if this motor turns the opposite way
+     */
+    public void simFollow(Motor leader, boolean opposed) {
+        if (canSimulate() && leader.sim != null) {
+            this.sim = MotorSim.follower(this, leader.sim, opposed);
+        }
+    }
+
+    private boolean canSimulate() {
+        if (!RobotBase.isSimulation()) {
+            return false;
+        }
+        if (this.type != MotorType.TFX) {
+            System.out.println("Motor: no simulation for CanID " + this.CanID + " (" + this.type + ")");
+            return false;
+        }
+        return this.sim == null;
+    }
+
     public void applyTalonFxConfig(TalonFXConfiguration config) {
         // Apply the configuration passed in
         this.motorTFX.getConfigurator().apply(config);
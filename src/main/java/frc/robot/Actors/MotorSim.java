@@ -0,0 +1,162 @@
+package frc.robot.Actors;
+
+import java.util.Arrays;
+
+// Import Phoenix 6 Libraries
+import com.ctre.phoenix6.Utils;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+// Import WPILib Libraries
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+
+// Import Utils
+import frc.robot.Utils.RotationDir;
+
+/**
+ * Physics for a simulated TalonFX Motor.
+ *
+ * Each sim reads the voltage the simulated TalonFX is applying, steps a WPILib plant
+ * (DCMotorSim for mechanisms that hold a position, FlywheelSim for rollers) and writes the
+ * rotor position and velocity back into the TalonFX sim state, so the device's own closed
+ * loops, status signals and everything reading Motor.vel()/pos() behave as on the robot.
+ * Followers copy their leader's rotor instead of having a plant of their own.
+ *
+ * Every sim is stepped on one Notifier at SIM_PERIOD_S, the same rate as the drivetrain
+ * sim thread, with the measured time delta. Nothing here is created on a real robot, see
+ * Motor.simMechanism / simFlywheel / simFollow.
+ */
+public class MotorSim {
+
+    // ========== CONSTANTS ==========
+    private static final double SIM_PERIOD_S = 0.005;   // Run faster than the loop so PID gains behave
+
+    private static volatile MotorSim[] sims = new MotorSim[0];
+    private static Notifier notifier;
+    private static double lastTime_s;
+    private static volatile double stepTime_s = 0.0;
+
+    private final Motor motor;
+    private final TalonFXSimState simState;
+    private final double gearing;
+    private final DCMotorSim mechanism;     // One of mechanism / flywheel / leader is set
+    private final FlywheelSim flywheel;
+    private final MotorSim leader;
+    private final double followSign;
+    private double rotorPos_rot = 0.0;
+    private double rotorVel_rps = 0.0;
+
+    private MotorSim(Motor motor, double gearing, DCMotorSim mechanism, FlywheelSim flywheel,
+            MotorSim leader, double followSign) {
+        this.motor = motor;
+        this.simState = motor.motorTFX.getSimState();
+        this.gearing = gearing;
+        this.mechanism = mechanism;
+        this.flywheel = flywheel;
+        this.leader = leader;
+        this.followSign = followSign;
+    }
+
+    // ========== CREATION ==========
+
+    /**
+     * @param gearbox   the motors driving the mechanism
+     * @param moi_kgm2  moment of inertia at the mechanism
+     * @param gearing   motor rotations per mechanism rotation
+     */
+    static MotorSim mechanism(Motor motor, DCMotor gearbox, double moi_kgm2, double gearing) {
+        DCMotorSim plant = new DCMotorSim(LinearSystemId.createDCMotorSystem(gearbox, moi_kgm2, gearing), gearbox);
+        return add(new MotorSim(motor, gearing, plant, null, null, 1.0));
+    }
+
+    /**
+     * @param gearbox   the motors driving the wheel, followers included
+     * @param moi_kgm2  moment of inertia of the wheel
+     * @param gearing   motor rotations per wheel rotation
+     */
+    static MotorSim flywheel(Motor motor, DCMotor gearbox, double moi_kgm2, double gearing) {
+        FlywheelSim plant = new FlywheelSim(LinearSystemId.createFlywheelSystem(gearbox, moi_kgm2, gearing), gearbox);
+        return add(new MotorSim(motor, gearing, null, plant, null, 1.0));
+    }
+
+    /**
+     * @param leader  sim of the motor being followed, already created
+     * @param opposed true if the follower turns the opposite way
+     */
+    static MotorSim follower(Motor motor, MotorSim leader, boolean opposed) {
+        return add(new MotorSim(motor, 1.0, null, null, leader, (opposed) ? -1.0 : 1.0));
+    }
+
+    private static synchronized MotorSim add(MotorSim sim) {
+        // Copy on write; the notifier only ever sees a complete array, in creation order
+        // so followers step after their leaders
+        MotorSim[] grown = Arrays.copyOf(sims, sims.length + 1);
+        grown[sims.length] = sim;
+        sims = grown;
+
+        if (notifier == null) {
+            lastTime_s = Utils.getCurrentTimeSeconds();
+            notifier = new Notifier(MotorSim::stepAll);
+            notifier.setName("MotorSim");
+            notifier.startPeriodic(SIM_PERIOD_S);
+        }
+        return sim;
+    }
+
+    // ========== STEPPING ==========
+
+    private static void stepAll() {
+        double start_s = Utils.getCurrentTimeSeconds();
+        double dt_s = start_s - lastTime_s;
+        lastTime_s = start_s;
+        double battery_V = RobotController.getBatteryVoltage();
+        for (MotorSim sim : sims) {
+            sim.step(dt_s, battery_V);
+        }
+        stepTime_s = Utils.getCurrentTimeSeconds() - start_s;
+    }
+
+    private void step(double dt_s, double battery_V) {
+        // The sim state reports voltage in the motor's own direction
+        simState.Orientation = (motor.motorConfig.direction == RotationDir.Clockwise)
+                ? ChassisReference.Clockwise_Positive
+                : ChassisReference.CounterClockwise_Positive;
+        simState.setSupplyVoltage(battery_V);
+
+        if (leader != null) {
+            rotorPos_rot = followSign * leader.rotorPos_rot;
+            rotorVel_rps = followSign * leader.rotorVel_rps;
+        } else if (mechanism != null) {
+            mechanism.setInputVoltage(simState.getMotorVoltage());
+            mechanism.update(dt_s);
+            rotorPos_rot = mechanism.getAngularPositionRotations() * gearing;
+            rotorVel_rps = mechanism.getAngularVelocityRadPerSec() / (2.0 * Math.PI) * gearing;
+        } else {
+            flywheel.setInputVoltage(simState.getMotorVoltage());
+            flywheel.update(dt_s);
+            rotorVel_rps = flywheel.getAngularVelocityRadPerSec() / (2.0 * Math.PI) * gearing;
+            rotorPos_rot += rotorVel_rps * dt_s;   // FlywheelSim has no position
+        }
+
+        simState.setRawRotorPosition(rotorPos_rot);
+        simState.setRotorVelocity(rotorVel_rps);
+    }
+
+    // ========== STATUS ==========
+
+    /**
+     * @return how long the last step of every sim took, for judging sim loop cost
+     */
+    public static double getStepTime_s() {
+        return stepTime_s;
+    }
+
+    public static int getCount() {
+        return sims.length;
+    }
+}
@@ -18,6 +18,7 @@ import com.pathplanner.lib.config.RobotConfig;
 import com.pathplanner.lib.controllers.PPHolonomicDriveController;
 
 import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
@@ -31,6 +32,10 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 
+import frc.robot.Actors.Vision;
+import frc.robot.Utils.BandwidthPlanner;
+import frc.robot.Utils.SpscQueue;
+import frc.robot.generated.TunerConstants;
 import frc.robot.generated.TunerConstants.TunerSwerveDrivetrain;
 
 /**
@@ -49,6 +54,10 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
     /* Keep track if we've ever applied the operator perspective before or not */
     private boolean m_hasAppliedOperatorPerspective = false;
 
+    /* Vision frames from the ingestion thread, drained once per loop */
+    private SpscQueue<Vision.VisionMeasurement> m_visionQueue = null;
+    private final Matrix<N3, N1> m_visionStdDevs = new Matrix<>(Nat.N3(), Nat.N1());
+
      /** Swerve request to apply during robot-centric path following */
     private final SwerveRequest.ApplyRobotSpeeds m_pathApplyRobotSpeeds = new SwerveRequest.ApplyRobotSpeeds();
 
@@ -261,6 +270,29 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         return m_sysIdRoutineToApply.dynamic(direction);
     }
 
+    /**
+     * Declares the signals the odometry thread and the steer loops depend on, so
+     * BandwidthPlanner.apply() keeps them at the odometry rate while it slows down
+     * everything else on the drivetrain bus. CANcoder position/velocity are read by the
+     * steer motors as remote sensors, so they count as used even though no code reads them.
+     */
+    public void declareSignals() {
+        String bus = TunerConstants.kCANBus.getName();
+        double odometryHz = getOdometryFrequency();
+        for (var module : getModules()) {
+            BandwidthPlanner.declare(bus, module.getDriveMotor().getPosition(false), odometryHz, "Odometry");
+            BandwidthPlanner.declare(bus, module.getDriveMotor().getVelocity(false), odometryHz, "Odometry");
+            BandwidthPlanner.declare(bus, module.getSteerMotor().getPosition(false), odometryHz, "Odometry");
+            BandwidthPlanner.declare(bus, module.getSteerMotor().getVelocity(false), odometryHz, "Odometry");
+            BandwidthPlanner.declare(bus, module.getEncoder().getPosition(false), odometryHz, "Steer remote sensor");
+            BandwidthPlanner.declare(bus, module.getEncoder().getVelocity(false), odometryHz, "Steer remote sensor");
+            BandwidthPlanner.addDevice(bus, module.getDriveMotor(), module.getSteerMotor(), module.getEncoder());
+        }
+        BandwidthPlanner.declare(bus, getPigeon2().getYaw(false), odometryHz, "Odometry");
+        BandwidthPlanner.declare(bus, getPigeon2().getAngularVelocityZWorld(false), odometryHz, "Odometry");
+        BandwidthPlanner.addDevice(bus, getPigeon2());
+    }
+
     @Override
     public void periodic() {
         /*
@@ -280,6 +312,30 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
                 m_hasAppliedOperatorPerspective = true;
             });
         }
+
+        drainVisionMeasurements();
+    }
+
+    /**
+     * Sets the queue vision measurements arrive on. Each one is added to the pose estimator
+     * in periodic(), exactly once.
+     *
+     * @param queue queue filled by Vision.startIngestion()
+     */
+    public void setVisionQueue(SpscQueue<Vision.VisionMeasurement> queue) {
+        m_visionQueue = queue;
+    }
+
+    private void drainVisionMeasurements() {
+        if (m_visionQueue == null) {
+            return;
+        }
+        for (Vision.VisionMeasurement measurement; (measurement = m_visionQueue.poll()) != null; ) {
+            m_visionStdDevs.set(0, 0, measurement.xyStdDev());
+            m_visionStdDevs.set(1, 0, measurement.xyStdDev());
+            m_visionStdDevs.set(2, 0, measurement.thetaStdDev());
+            addVisionMeasurement(measurement.pose(), measurement.timestampSeconds(), m_visionStdDevs);
+        }
     }
 
     private void startSimThread() {
@@ -32,6 +32,10 @@ public class Indexer extends SubsystemBase {
         this.motor2.applyConfig();
         this.motor.pid(0.3, 0.0, 0.0); // Setup the indexer PID
         this.motor2.pid(0.1, 0.0, 0.0); // Setup the roller bed PID
+
+        // Simulation physics (ignored on the robot)
+        this.motor.simFlywheel(0.002, 1.0, 1); //?
+        this.motor2.simFlywheel(0.002, 1.0, 1); //?
     }
 
     public double getTemp1() {
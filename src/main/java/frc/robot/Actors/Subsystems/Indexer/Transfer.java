@@ -39,6 +39,7 @@ public class Transfer extends SubsystemBase {
         this.motor.motorConfig.peakReverseDC = -0.3; //?
         this.motor.applyConfig();
         this.motor.pid(0.3, 0.0, 0.0); // Setup the transfer PID
+        this.motor.simFlywheel(0.001, 1.0, 1); //? Simulation only
 
         // Beam break setup
         this.bpsBeamBreak = new DigitalInput(IndexerConstants.bpsBeamBreakPort);
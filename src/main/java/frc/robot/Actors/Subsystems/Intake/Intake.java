@@ -19,6 +19,7 @@ public class Intake extends SubsystemBase {
         this.motor = new Motor(IntakeConstants.intakeMotorID, MotorType.TFX, "rio");
         this.motor.motorConfig.direction = RotationDir.CounterClockwise;
         this.motor.applyConfig();
+        this.motor.simFlywheel(0.001, 1.0, 1); //? Simulation only
     }
 
     public double getTemp() {
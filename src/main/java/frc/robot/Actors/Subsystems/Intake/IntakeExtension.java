@@ -20,11 +20,12 @@ public class IntakeExtension extends SubsystemBase {
         // Configure the intake extension motor
         this.motor = new Motor(IntakeConstants.extensionMotorID, MotorType.TFX, "rio");
 
-        this.motor.motorTFX.setPosition(0.0);             // 0 degrees
+        this.motor.setStartPos(0.0);                      // 0 degrees
         this.motor.motorConfig.direction = RotationDir.Clockwise;
         this.motor.motorConfig.brake = false;
         this.motor.applyConfig();
         this.motor.pid(0.04, 0.015, 0.0);
+        this.motor.simMechanism(0.05, IntakeConstants.extensionGearRatio); //? Simulation only
     }
 
     public double getTemp() {
@@ -32,8 +33,7 @@ public class IntakeExtension extends SubsystemBase {
     }
 
     public void setBrake(boolean brake) {
-        this.motor.motorConfig.brake = brake;
-        this.motor.applyConfig();
+        this.motor.setBrake(brake);
     }
 
     // Motor Controls
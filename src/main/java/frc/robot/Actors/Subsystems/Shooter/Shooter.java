@@ -13,6 +13,7 @@ import com.ctre.phoenix6.signals.MotorAlignmentValue;
 import frc.robot.Robot;
 // Import Actors, Utils & Constants
 import frc.robot.Actors.Motor;
+import frc.robot.Utils.BandwidthPlanner;
 //import frc.robot.Utils.HubShooterTrajectoryCalc;
 import frc.robot.Utils.MotorType;
 import frc.robot.Utils.RotationDir;
@@ -42,23 +43,32 @@ public class Shooter extends SubsystemBase {
         /*this.leadMotor.slot0TFX.kV = 0.0;
         this.leadMotor.pid(0.0, 0.0, 0.0); // Setup the Shooter PID*/
 
-        this.leadMotor.motorTFX.getVelocity().setUpdateFrequency(1000.0);
+        BandwidthPlanner.declare("rio", this.leadMotor.motorTFX.getVelocity(false), 1000.0, "Shooter");
         //this.leadMotor.motorTFX.getClosedLoopOutput().setUpdateFrequency(100.0);
 
+        // The follower mirrors the lead motor's output frames, keep them fast
+        BandwidthPlanner.declare("rio", this.leadMotor.motorTFX.getDutyCycle(false), 100.0, "Shooter follower");
+        BandwidthPlanner.declare("rio", this.leadMotor.motorTFX.getMotorVoltage(false), 100.0, "Shooter follower");
+        BandwidthPlanner.declare("rio", this.leadMotor.motorTFX.getTorqueCurrent(false), 100.0, "Shooter follower");
+
         // Set the followMotor to follow the lead motor and make it opposed
         this.followMotor.motorTFX.setControl(new Follower(ShooterConstants.leadMotorID, MotorAlignmentValue.Opposed));
     
-        this.hoodMotor.motorTFX.setPosition(0.02604);        // 5 degrees
+        this.hoodMotor.setStartPos(0.02604);                 // 5 degrees
         this.hoodMotor.motorConfig.direction = RotationDir.Clockwise;
         this.hoodMotor.applyConfig();
         this.hoodMotor.slot0TFX.kG = 0.025;
         this.hoodMotor.slot0TFX.GravityType = GravityTypeValue.Elevator_Static;
         this.hoodMotor.pid(0.35, 0.0, 0.012);
+
+        // Simulation physics (ignored on the robot)
+        this.leadMotor.simFlywheel(0.004, 1.0, 2); //?
+        this.followMotor.simFollow(this.leadMotor, true);
+        this.hoodMotor.simMechanism(0.01, ShooterConstants.hoodGearRatio); //?
     }
 
     public void setBrake(boolean brake) {
-        this.hoodMotor.motorConfig.brake = brake;
-        this.hoodMotor.applyConfig();
+        this.hoodMotor.setBrake(brake);
     }
 
     /**
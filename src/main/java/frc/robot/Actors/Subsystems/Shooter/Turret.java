@@ -6,6 +6,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 // Import Phoneix6 Libraries
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.signals.ForwardLimitSourceValue;
 import com.ctre.phoenix6.signals.ForwardLimitTypeValue;
@@ -21,6 +22,7 @@ public class Turret extends SubsystemBase {
 
     // initiate motors
     private Motor motor;
+    private final StatusSignal<ForwardLimitValue> forwardLimit;   // Beam break, polled while homing
 
     public Turret() {
         // Configure the turret motor
@@ -42,6 +44,11 @@ public class Turret extends SubsystemBase {
         this.motor.applyConfig();
         this.motor.motionMagic(0.3, 0.0, 0.0, 0.05/5.0, 0.0, 30.0*5.0, 30.0*5.0);//?
         //this.motor.motionMagic(0.0, 0.0, 0.0, 0.00/5.0, 0.0, 30.0*5.0, 30.0*5.0);//?
+
+        this.motor.simMechanism(0.05, TurretConstants.turretGearRatio); //? Simulation only
+
+        // Undeclared signals drop to 4 Hz, which would end homing up to 250 ms late
+        this.forwardLimit = this.motor.loopSignal(this.motor.motorTFX.getForwardLimit(false), "Turret homing");
     }
 
     /**
@@ -55,8 +62,7 @@ public class Turret extends SubsystemBase {
     }
 
     public void setBrake(boolean brake) {
-        this.motor.motorConfig.brake = brake;
-        this.motor.applyConfig();
+        this.motor.setBrake(brake);
     }
 
     /**
@@ -72,7 +78,7 @@ public class Turret extends SubsystemBase {
      */
     public boolean beambreakActive() {
         // Return beam breat status (true or false)
-        return this.motor.motorTFX.getForwardLimit().getValue().equals(ForwardLimitValue.Open);
+        return this.forwardLimit.getValue().equals(ForwardLimitValue.Open);
     }
 
     /**
@@ -151,7 +157,7 @@ public class Turret extends SubsystemBase {
 
 
         SmartDashboard.putNumber("diff", Math.abs((angle.minus(new Rotation2d(
-            motor.motorTFX.getPosition().getValueAsDouble() * 2 * Math.PI / TurretConstants.turretGearRatio)))
+            current / 180 * Math.PI)))
             .getDegrees()));
     }
 
@@ -1,8 +1,14 @@
 package frc.robot.Actors;
 
 // Import WPILib Libraries
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
@@ -14,12 +20,33 @@ import java.util.function.DoubleSupplier;
 import frc.robot.Utils.LimelightHelpers;
 import frc.robot.Utils.LimelightHelpers.PoseEstimate;
 import frc.robot.Utils.LimelightHelpers.RawFiducial;
+import frc.robot.Utils.SpscQueue;
 import frc.robot.Constants.VisionConstants;
 
 public class Vision extends SubsystemBase {
 
     public record FusedVisionResult(Pose2d pose, double tiemstamp) {}
 
+    /** Where fused measurements go, normally CommandSwerveDrivetrain::addVisionMeasurement */
+    @FunctionalInterface
+    public interface MeasurementConsumer {
+        void accept(Pose2d pose, double timestampSeconds, Matrix<N3, N1> stdDevs);
+    }
+
+    /** One camera frame, ready for the pose estimator */
+    public record VisionMeasurement(Pose2d pose, double timestampSeconds, double xyStdDev, double thetaStdDev) {}
+
+    // Background ingestion: polls faster than the cameras publish so frames don't wait long
+    private static final double INGEST_PERIOD_S = 0.01;
+    private static final int QUEUE_CAPACITY = 32;           // ~10 loops of 3 cameras
+    private final SpscQueue<VisionMeasurement> measurements = new SpscQueue<>(QUEUE_CAPACITY);
+    private Notifier ingestNotifier = null;
+
+    // Field size, for rejecting estimates that land off the field
+    private static final double FIELD_LENGTH_M = 16.54;
+    private static final double FIELD_WIDTH_M = 8.07;
+    private static final double NO_THETA_STD = 9999999.0;
+
     // This is a scored pose record to help compare the camera readings to determine the best position
     private record ScoredPose(
         LimelightHelpers.PoseEstimate pose,
@@ -51,6 +78,22 @@ public class Vision extends SubsystemBase {
     private final Supplier<Pose2d> poseSupplier;
     private final Supplier<Rotation2d> rotation2dSupplier;
 
+    // Per camera: std-devs handed to the drivetrain (reused) and the last frame fused
+    private final Matrix<N3, N1>[] stdDevs;
+    private final double[] lastTimestamps;
+
+    // Tag filter currently on the cameras
+    private int lastFilterCell = -1;
+    private int filterSlot = -1;
+    private long filterMask = -1L;
+    private boolean filterRed = false;
+    private double lastFilterSend_s = 0.0;
+
+    // Per camera decode buffers for the measurement path, so steady state reads allocate
+    // only when a camera has a new frame
+    private final LimelightHelpers.PoseEstimateBuffer[] poseBuffers;
+    private final LimelightHelpers.PoseEstimate[] latestPoses;
+
     /*
     TODO: Add all Zones
     Limelight Zoning disabling all other tags other then the ones listed in that zone 
@@ -69,6 +112,30 @@ public class Vision extends SubsystemBase {
          new VisionZone(0.0, 1.2, 0.0, 1.05, new int[] {29, 30}, new int[] {14, 13})
     };
 
+    // All Hub april Tags, allowed everywhere outside the zones above
+    //private static final int[] DEFAULT_TAGS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32};
+    private static final int[] DEFAULT_TAGS = {18, 19, 20, 21, 24, 25, 26, 27, 8, 9, 10, 11, 2, 3, 4, 5}; //?
+
+    /*
+     * Zone lookup grid, built once. Each cell holds a slot: 0 for outside every zone, or
+     * 1 + the index of the first zone containing the cell's center (same precedence as
+     * scanning StructureZones in order). Each slot has its allowed tags and their bitmask
+     * per alliance, so a lookup is one array index and allocates nothing.
+     */
+    private static final double GRID_CELL_M = 0.05;
+    private static final int GRID_COLS = (int) Math.ceil(FIELD_LENGTH_M / GRID_CELL_M);
+    private static final int GRID_ROWS = (int) Math.ceil(FIELD_WIDTH_M / GRID_CELL_M);
+    private static final byte[] zoneGrid = buildZoneGrid();
+    private static final int[][] blueSlotTags = slotTags(false);
+    private static final int[][] redSlotTags = slotTags(true);
+    private static final long[] blueSlotMasks = slotMasks(blueSlotTags);
+    private static final long[] redSlotMasks = slotMasks(redSlotTags);
+
+    // Filters are only pushed when the allowed tags change, once the robot is this far
+    // into the new zone, and re-sent now and then in case a camera restarted
+    private static final double ZONE_HYSTERESIS_M = 0.15;
+    private static final double FILTER_RESEND_S = 5.0;
+
     /*
      * Constructor for vision
      */
@@ -82,6 +149,96 @@ public class Vision extends SubsystemBase {
         this.omegaRpsSupplier = omegaRpsSupplier;
         this.poseSupplier = poseSupplier;
         this.rotation2dSupplier = rotation2dSupplier;
+
+        int cameras = VisionConstants.limelightNames.length;
+        @SuppressWarnings("unchecked")
+        Matrix<N3, N1>[] matrices = new Matrix[cameras];
+        for (int index = 0; index < cameras; index++) {
+            matrices[index] = new Matrix<>(Nat.N3(), Nat.N1());
+        }
+        this.stdDevs = matrices;
+        this.lastTimestamps = new double[cameras];
+        this.poseBuffers = new LimelightHelpers.PoseEstimateBuffer[cameras];
+        for (int index = 0; index < cameras; index++) {
+            this.poseBuffers[index] = new LimelightHelpers.PoseEstimateBuffer();
+        }
+        this.latestPoses = new LimelightHelpers.PoseEstimate[cameras];
+    }
+
+    /*
+     * Starts reading the cameras on a background thread. Every new frame is scored and
+     * queued once; the drivetrain drains the queue each loop (setVisionQueue), so the main
+     * loop does no NetworkTables work for vision. Returns the queue.
+     */
+    public SpscQueue<VisionMeasurement> startIngestion() {
+        if (ingestNotifier == null) {
+            ingestNotifier = new Notifier(() -> {
+                try {
+                    addVisionMeasurements((pose, timestamp, std) -> measurements.offer(
+                        new VisionMeasurement(pose, timestamp, std.get(0, 0), std.get(2, 0))));
+                } catch (RuntimeException | Error err) {
+                    System.out.println("Vision: " + err);
+                }
+            });
+            ingestNotifier.setName("VisionIngest");
+            ingestNotifier.startPeriodic(INGEST_PERIOD_S);
+        }
+        return measurements;
+    }
+
+    /*
+     * Feeds every usable camera estimate to the pose estimator, each with its own timestamp
+     * and std-devs, so all cameras contribute and the filter weighs them against odometry
+     * and each other. Frames already fused are skipped. Returns how many were added.
+     * Call from one thread only; startIngestion() calls it from the ingestion thread.
+     */
+    public int addVisionMeasurements(MeasurementConsumer consumer) {
+        LimelightHelpers.PoseEstimate[] poses = this.readNewPoses();
+        double omega_dps = Math.abs(omegaRpsSupplier.getAsDouble()) * 360.0;
+
+        int added = 0;
+        for (int index = 0; index < poses.length; index++) {
+            LimelightHelpers.PoseEstimate pose = poses[index];
+            if (pose == null || pose.timestampSeconds == lastTimestamps[index]) continue;
+            lastTimestamps[index] = pose.timestampSeconds;
+
+            double xyStd = xyStdDev(pose, omega_dps);
+            if (Double.isNaN(xyStd)) continue;
+
+            stdDevs[index].set(0, 0, xyStd);
+            stdDevs[index].set(1, 0, xyStd);
+            stdDevs[index].set(2, 0, NO_THETA_STD);
+            consumer.accept(pose.pose, pose.timestampSeconds, stdDevs[index]);
+            added++;
+        }
+        return added;
+    }
+
+    /*
+     * XY std-dev in meters for a MegaTag2 estimate, growing with distance squared and
+     * shrinking with tag count, scaled up for ambiguity and for how fast we're spinning.
+     * NaN if the estimate shouldn't be used at all.
+     */
+    private double xyStdDev(LimelightHelpers.PoseEstimate pose, double omega_dps) {
+        if (!pose.isMegaTag2 || pose.tagCount == 0) return Double.NaN;
+        if (omega_dps > VisionConstants.maxOmega_dps) return Double.NaN;
+        if (pose.avgTagDist > VisionConstants.maxTagDist_m) return Double.NaN;
+        double x = pose.pose.getX();
+        double y = pose.pose.getY();
+        if (x < 0.0 || x > FIELD_LENGTH_M || y < 0.0 || y > FIELD_WIDTH_M) return Double.NaN;
+
+        double ambiguity = 0.0;
+        for (RawFiducial rawF : pose.rawFiducials) {
+            ambiguity += rawF.ambiguity;
+        }
+        if (pose.rawFiducials.length > 0) ambiguity /= pose.rawFiducials.length;
+        if (pose.tagCount == 1 && ambiguity > VisionConstants.maxAmbiguity) return Double.NaN;
+
+        double std = VisionConstants.xyStdDevPerDist2_m * pose.avgTagDist * pose.avgTagDist / pose.tagCount;
+        if (pose.tagCount == 1) std *= VisionConstants.singleTagFactor;
+        std *= 1.0 + VisionConstants.ambiguityFactor * ambiguity;
+        std *= 1.0 + VisionConstants.spinFactor_perDps * omega_dps;
+        return Math.max(std, 0.02);     // Never trust a camera more than odometry over a frame
     }
 
     /*
@@ -103,7 +260,7 @@ public class Vision extends SubsystemBase {
             // If the pose has 0 tag counts skip this instance
             if (pose.tagCount == 0) continue;
             // If we are spinning faster than 720 deg / sec skip this instance
-            if (Math.abs(omegaRpsSupplier.getAsDouble()) > 720) continue;
+            if (Math.abs(omegaRpsSupplier.getAsDouble()) * 360.0 > VisionConstants.maxOmega_dps) continue;
 
             // Score the pose estimate
             var scored = score(pose);
@@ -145,8 +302,10 @@ public class Vision extends SubsystemBase {
         }
 
         // Loop through all of the poses to determine the best one
+        double timestamp = 0.0;
+        double highestWeight = 0.0;
         for (var pose : poses) {
-            if (pose.tagCount == 0) continue;
+            if (pose == null || pose.tagCount == 0 || pose.avgTagDist <= 0.0) continue;
 
             // Weight = 1 / variance = 1 / (k * distance)²
             double dist = pose.avgTagDist;
@@ -158,6 +317,12 @@ public class Vision extends SubsystemBase {
             sumX += pose.pose.getX() * weight;
             sumY += pose.pose.getY() * weight;
             sumWeight += weight;
+
+            // The fused pose is closest to the most trusted camera's frame
+            if (weight > highestWeight) {
+                highestWeight = weight;
+                timestamp = pose.timestampSeconds;
+            }
         }
 
         if (sumWeight == 0) return null; // No valid estimates
@@ -168,7 +333,35 @@ public class Vision extends SubsystemBase {
             this.rotation2dSupplier.get() // Trust gyro for heading
         );
 
-        return new FusedVisionResult(fusedPose, poses[VisionConstants.limelightNames.length - 1].timestampSeconds);
+        return new FusedVisionResult(fusedPose, timestamp);
+    }
+
+    /*
+     * Like getPoses, but decodes into the per-camera buffers and leaves a camera null when
+     * it has no new frame. The returned array and estimates are reused by the next call.
+     */
+    private LimelightHelpers.PoseEstimate[] readNewPoses() {
+        // Update Limelight tag filters
+        updateTagFilters();
+
+        // Heading for MegaTag2 goes to every camera in one NT flush per poll
+        double heading = this.headingSupplier.getAsDouble();
+        for (String limelightID : VisionConstants.limelightNames) {
+            LimelightHelpers.SetRobotOrientation_NoFlush(limelightID, heading, 0, 0, 0, 0, 0);
+        }
+        LimelightHelpers.Flush();
+
+        for (int index = 0; index < VisionConstants.limelightNames.length; index++) {
+            try {
+                String limelightID = VisionConstants.limelightNames[index];
+                latestPoses[index] = LimelightHelpers.readBotPoseEstimate_wpiBlue_MegaTag2(limelightID, poseBuffers[index]);
+            } catch(Error err) {
+                latestPoses[index] = null;
+                System.out.println(err);
+            }
+        }
+
+        return latestPoses;
     }
 
     /*
@@ -379,59 +572,121 @@ public class Vision extends SubsystemBase {
     }
 
     /*
-     * Checks whether a pose is inside a given zone.
+     * Checks whether a point is inside a given zone.
      * Since your zones are fixed field locations, there is NO mirroring here.
      */
-    private boolean isPoseInZone(Pose2d pose, VisionZone zone) {
-        double x = pose.getX();
-        double y = pose.getY();
-
+    private static boolean isInZone(double x, double y, VisionZone zone) {
         return x >= zone.xMin()
             && x <= zone.xMax()
             && y >= zone.yMin()
             && y <= zone.yMax();
     }
 
+    private static byte[] buildZoneGrid() {
+        byte[] grid = new byte[GRID_COLS * GRID_ROWS];
+        for (int row = 0; row < GRID_ROWS; row++) {
+            for (int col = 0; col < GRID_COLS; col++) {
+                double x = (col + 0.5) * GRID_CELL_M;
+                double y = (row + 0.5) * GRID_CELL_M;
+                for (int zone = 0; zone < StructureZones.length; zone++) {
+                    if (isInZone(x, y, StructureZones[zone])) {
+                        grid[row * GRID_COLS + col] = (byte) (zone + 1);
+                        break;
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    private static int[][] slotTags(boolean red) {
+        int[][] tags = new int[StructureZones.length + 1][];
+        tags[0] = DEFAULT_TAGS;
+        for (int zone = 0; zone < StructureZones.length; zone++) {
+            tags[zone + 1] = red ? StructureZones[zone].redTags() : StructureZones[zone].blueTags();
+        }
+        return tags;
+    }
+
+    private static long[] slotMasks(int[][] tags) {
+        long[] masks = new long[tags.length];
+        for (int slot = 0; slot < tags.length; slot++) {
+            for (int id : tags[slot]) {
+                masks[slot] |= 1L << id;
+            }
+        }
+        return masks;
+    }
+
+    /*
+     * Grid cell containing a point, -1 if it's off the field
+     */
+    private static int cellAt(double x, double y) {
+        int col = (int) Math.floor(x / GRID_CELL_M);
+        int row = (int) Math.floor(y / GRID_CELL_M);
+        if (col < 0 || col >= GRID_COLS || row < 0 || row >= GRID_ROWS) return -1;
+        return row * GRID_COLS + col;
+    }
+
+    /*
+     * Zone slot at a point, 0 (all hub tags) off the field or outside every zone
+     */
+    private static int slotAt(double x, double y) {
+        int cell = cellAt(x, y);
+        return (cell < 0) ? 0 : zoneGrid[cell];
+    }
+
+    /*
+     * True if the point is at least ZONE_HYSTERESIS_M inside the slot's region in every
+     * direction, so small pose jitter at an edge doesn't flip the filter back and forth
+     */
+    private static boolean isSettled(double x, double y, int slot) {
+        return slotAt(x + ZONE_HYSTERESIS_M, y) == slot
+            && slotAt(x - ZONE_HYSTERESIS_M, y) == slot
+            && slotAt(x, y + ZONE_HYSTERESIS_M) == slot
+            && slotAt(x, y - ZONE_HYSTERESIS_M) == slot;
+    }
+
     /*
      * Figures out which AprilTag IDs should be allowed right now based on:
      * 1. current odometry pose
      * 2. which zone the robot is in
      * 3. alliance color
-     *
-     * Returns:
-     * - the zone's blue tag list if on blue
-     * - the zone's red tag list if on red
-     * - null if not inside any zone, which clears the filter override
+     * and pushes that list to every Limelight, but only when it changes.
+     * This should happen BEFORE reading pose estimates, so each Limelight
+     * only solves pose using the tags that make sense for the current zone.
+     * Nothing is re-evaluated while the robot stays in the same grid cell, and a new
+     * zone only takes over once the robot is clearly inside it.
      */
-    private int[] getAllowedTagsForCurrentZone() {
+    private synchronized void updateTagFilters() {
         Pose2d currentPose = poseSupplier.get();
+        double x = currentPose.getX();
+        double y = currentPose.getY();
         boolean redAlliance = isRedAlliance();
-        
-        for (VisionZone zone : StructureZones) {
-            if (isPoseInZone(currentPose, zone)) {
-                return redAlliance ? zone.redTags() : zone.blueTags();
-            }
+        double now = Timer.getFPGATimestamp();
+        boolean resend = now - lastFilterSend_s > FILTER_RESEND_S;
+
+        int cell = cellAt(x, y);
+        if (cell == lastFilterCell && redAlliance == filterRed && !resend) return;
+        lastFilterCell = cell;
+
+        int slot = slotAt(x, y);
+        if (filterSlot >= 0 && slot != filterSlot && !isSettled(x, y, slot)) {
+            // Near an edge: keep the current filter until clearly across
+            slot = filterSlot;
         }
-        
-        // Returns all april tags
-        //return new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32};
-        
-        // Returns All Hub april Tags
-        return new int[] {18, 19, 20, 21, 24, 25, 26, 27, 8, 9, 10, 11, 2, 3, 4, 5}; //?
+        filterSlot = slot;
 
-    }
+        long mask = redAlliance ? redSlotMasks[slot] : blueSlotMasks[slot];
+        if (mask == filterMask && redAlliance == filterRed && !resend) return;
 
-    /*
-     * Pushes the currently allowed tag list to every Limelight.
-     * This should happen BEFORE reading pose estimates, so each Limelight
-     * only solves pose using the tags that make sense for the current zone.
-     */
-    private void updateTagFilters() {
-        int[] allowedTags = getAllowedTagsForCurrentZone();
-        
+        int[] allowedTags = redAlliance ? redSlotTags[slot] : blueSlotTags[slot];
         for (String limelightName : VisionConstants.limelightNames) {
             LimelightHelpers.SetFiducialIDFiltersOverride(limelightName, allowedTags);
         }
+        filterMask = mask;
+        filterRed = redAlliance;
+        lastFilterSend_s = now;
     }
 
     @Override
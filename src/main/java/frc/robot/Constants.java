@@ -31,6 +31,16 @@ public final class Constants {
     // Limelight Names
     //public static final String[] limelightNames = {"limelight-front", "limelight-back", "limelight-left", "limelight-right"};
     public static final String[] limelightNames = {"limelight-front", "limelight-back", "limelight-left"}; //?
+
+    // Measurement trust: xy std-dev = xyStdDevPerDist2_m * avgDist^2 / tagCount, then scaled up
+    // for ambiguity and spin. MegaTag2 heading comes from the gyro, so theta is never trusted
+    public static final double xyStdDevPerDist2_m = 0.05; //?
+    public static final double singleTagFactor = 2.0; //?
+    public static final double ambiguityFactor = 3.0; //? std-dev multiplier per unit ambiguity
+    public static final double spinFactor_perDps = 1.0 / 360.0; //? std-dev multiplier per deg/s of rotation
+    public static final double maxAmbiguity = 0.7; // Single-tag estimates above this are dropped
+    public static final double maxTagDist_m = 6.0; //?
+    public static final double maxOmega_dps = 720.0;
   }
 
   public static class IntakeConstants {
@@ -89,6 +99,7 @@ public final class Constants {
     public static final double negExtension = -185/360*turretGearRatio; //??
 
     public static final Translation2d turretPos = new Translation2d(-0.133,-0.02413);
+    public static final double shotLatency_s = 0.08; // Loop + CAN + feed-to-exit latency budget //?
   }
   
   public static class DrivetrainConstants {
@@ -120,4 +131,27 @@ public final class Constants {
     public static final double maxGroundSpeed_mPs = 5.0;
     public static final double maxRotateSpeed_radPs = maxGroundSpeed_mPs / Math.hypot(moduleToModuleLength_X_m, moduleToModuleWidth_Y_m);
   }
+
+  public static class PowerConstants {
+    // The current budget only publishes what it would do (CurrentBudget/ on the dashboard)
+    // until the channel map and battery resistance below have been checked on the robot
+    public static final boolean currentBudgetEnabled = false;
+
+    // PDH channels per subsystem, for the current budget
+    // TODO: Check these against the wiring
+    public static final int[] drivetrainChannels = {0, 1, 2, 3, 16, 17, 18, 19}; //?
+    public static final int[] shooterChannels = {4, 5}; //?
+    public static final int[] indexerChannels = {6, 7, 8}; //?
+    public static final int[] intakeChannels = {9}; //?
+
+    // Battery model: V = Voc - I*R, with R the battery plus main wiring
+    // TODO: Measure: (resting V - V under a steady load) / load current, from the PDH
+    public static final double batteryResistance_ohm = 0.02; //?
+    public static final double minBatteryVoltage_V = 7.5;      // roboRIO browns out at 6.8 V, keep margin
+
+    // Lowest supply limit each motor is cut to when the budget is short
+    public static final double shooterFloor_A = 25.0; //?
+    public static final double indexerFloor_A = 10.0; //?
+    public static final double intakeFloor_A = 5.0; //?
+  }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package frc.robot;
 
 import java.util.function.Consumer;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.swerve.SwerveModule;
@@ -23,6 +24,10 @@ import frc.robot.Actors.Subsystems.Shooter.Shooter;
 import frc.robot.Actors.Subsystems.Shooter.Turret;
 import frc.robot.Actors.Subsystems.Indexer.Indexer;
 import frc.robot.Actors.Subsystems.Indexer.Transfer;
+import frc.robot.Utils.AsyncConfigurator;
+import frc.robot.Utils.BandwidthPlanner;
+import frc.robot.Utils.SignalRegistry;
+import frc.robot.generated.TunerConstants;
 import frc.robot.WildBoard.WildBoard;
 import frc.robot.WildBoard.Panels.*;
 
@@ -38,6 +43,7 @@ public class Dashboard {
     private Intake intake;
     private IntakeExtension intakeExtension;
     private PowerDistribution pdh;
+    private final BaseStatusSignal[] swerveTempSignals;  // Drive motor temps, refreshed by SignalRegistry
 
     final VelocitySimpleSubsystem WBshooter;
     final SimpleSubsystem WBintake;
@@ -52,6 +58,7 @@ public class Dashboard {
 
     public double battAvg = 12.0;
     public double currAvg = 50.0;
+    private long configFailures = 0;    // AsyncConfigurator failures already alarmed on
     
     public boolean shotSmoothing = true;
 
@@ -67,6 +74,14 @@ public class Dashboard {
         this.intakeExtension = intakeExtension;
         this.pdh = pdh;
         this.autoChosen = autoChoosen;
+
+        SwerveModule<TalonFX, TalonFX, CANcoder>[] swerveModules = drivetrain.getModules();
+        swerveTempSignals = new BaseStatusSignal[swerveModules.length];
+        for (int i = 0; i < swerveModules.length; i++) {
+            swerveTempSignals[i] = SignalRegistry.register(TunerConstants.kCANBus.getName(),
+                    BandwidthPlanner.declare(TunerConstants.kCANBus.getName(),
+                            swerveModules[i].getDriveMotor().getDeviceTemp(false), BandwidthPlanner.OPTIMIZED_HZ, "Dashboard"));
+        }
         dashboard = new WildBoard(5804);
 
         WBfieldMap = new FieldMap();
@@ -211,11 +226,10 @@ public class Dashboard {
         double[] swerveTemps = new double[4];
         double[] swerveVels = new double[4];
         SwerveModuleState[] states = drivetrain.getState().ModuleStates;
-        SwerveModule<TalonFX, TalonFX, CANcoder>[] modules = drivetrain.getModules();
 
         for (int i = 0; i < states.length; i++) {
             swerveAngles[i] = states[i].angle.getDegrees();
-            swerveTemps[i] = drivetrain.getModules()[i].getDriveMotor().getDeviceTemp().getValueAsDouble();
+            swerveTemps[i] = swerveTempSignals[i].getValueAsDouble();
             swerveVels[i] = states[i].speedMetersPerSecond;
         }
 
@@ -223,8 +237,8 @@ public class Dashboard {
 
         // Master Alarms update
 
-        for (SwerveModule<TalonFX, TalonFX, CANcoder> module : modules) {
-            if (module.getDriveMotor().getDeviceTemp().getValueAsDouble() > 80) {
+        for (double temp : swerveTemps) {
+            if (temp > 80) {
                 WBalarms.triggerAlarm(0);
             }
         }
@@ -241,7 +255,15 @@ public class Dashboard {
         }
 
         CANStatus can = RobotController.getCANStatus();
-        if (can.transmitErrorCount > 0 || can.receiveErrorCount > 0 || can.percentBusUtilization > 0.9) {
+        if (can.transmitErrorCount > 0 || can.receiveErrorCount > 0 || can.percentBusUtilization > 0.9
+                || BandwidthPlanner.getMeasuredUtilization(TunerConstants.kCANBus.getName()) > 0.9) {
+            WBalarms.triggerAlarm(2);
+        }
+        // A background config (current limits) that didn't take is a CAN problem too
+        long failures = AsyncConfigurator.getFailedCount();
+        if (failures != configFailures) {
+            configFailures = failures;
+            System.out.println("Dashboard: config failed, " + AsyncConfigurator.getStats());
             WBalarms.triggerAlarm(2);
         }
 
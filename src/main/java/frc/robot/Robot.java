@@ -5,16 +5,22 @@
 package frc.robot;
 
 // Import WPI Libraries
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
-import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.util.Units;
+import frc.robot.Utils.BallisticsEngine;
+import frc.robot.Utils.BandwidthPlanner;
 import frc.robot.Utils.HubShooterTrajectoryCalc;
+import frc.robot.Utils.LobShotPlanner;
+import frc.robot.Utils.SignalRegistry;
 // Import Limelight Utils
 import frc.robot.Utils.LimelightHelpers;
+import frc.robot.Actors.Motor;
 import frc.robot.Actors.Vision;
 import frc.robot.Constants.TurretConstants;
 
@@ -34,19 +40,36 @@ public class Robot extends TimedRobot {
   private final Vision vision;
   public static final boolean test = false; //?
   public static final boolean defense = false;//?
+  private static final String SLIP_KEY = "Shooter/SlipFactor";
 
   /**
    * This function is run when the robot is first started up and should be used
    * for any initialization code.
    */
   public Robot() {
-    HubShooterTrajectoryCalc.initializeCache();
+    // Fitted drag / spin model (ShotModelFitter) if one was deployed; must be set before the cache loads
+    HubShooterTrajectoryCalc.setShotModel(BallisticsEngine.ShotModel.loadOrDefault(
+        Filesystem.getDeployDirectory().toPath().resolve(HubShooterTrajectoryCalc.DEPLOY_MODEL_FILE_NAME)));
+    // Load the trajectory table generated at build time (falls back to solving on the robot)
+    HubShooterTrajectoryCalc.initializeCache(
+        Filesystem.getDeployDirectory().toPath().resolve(HubShooterTrajectoryCalc.DEPLOY_CACHE_FILE_NAME));
+    // Passing table is too slow to solve in the constructor; ShotPredictor uses the bump points until it's ready
+    LobShotPlanner.initializeAsync();
+    // Slip is tunable live from the dashboard; lookups apply it, nothing is re-solved
+    SmartDashboard.putNumber(SLIP_KEY, HubShooterTrajectoryCalc.getShotModel().slipFactor);
 
     // Instantiate our RobotContainer. This will perform all our button bindings,
     // and put our
     // autonomous chooser on the dashboard.
     m_robotContainer = new RobotContainer();
 
+    // Every subsystem has staged its motor configs by now; send them all at once
+    Motor.applyPendingConfigs();
+
+    // Every subsystem has declared its signals by now; set their rates and slow down the rest
+    m_robotContainer.drivetrain.declareSignals();
+    BandwidthPlanner.apply();
+
     // Reset the Pigeon2 on the drivetrain.
     // TODO: is this needed?
     m_robotContainer.drivetrain.getPigeon2().reset();
@@ -60,10 +83,15 @@ public class Robot extends TimedRobot {
       () -> m_robotContainer.drivetrain.getPose(),
       () -> m_robotContainer.drivetrain.getPigeon2().getRotation2d()
     );
+    // Cameras are read on their own thread; the drivetrain fuses each frame once per loop
+    m_robotContainer.drivetrain.setVisionQueue(vision.startIngestion());
   }
 
   @Override
   public void robotPeriodic() {
+    // One refresh per CAN bus for every registered status signal; everything below reads the cached values
+    SignalRegistry.refreshAll();
+
     // Runs the Scheduler. This is responsible for polling buttons, adding
     // newly-scheduled
     // commands, running already-scheduled commands, removing finished or
@@ -73,22 +101,11 @@ public class Robot extends TimedRobot {
     // block in order for anything in the Command-based framework to work.
     CommandScheduler.getInstance().run();
 
-    // Get the best pose estimate from all of the cameras
-    try {
-      LimelightHelpers.PoseEstimate bestPose = vision.getBestPose();
-      //Vision.FusedVisionResult fusedPose = vision.fuseFourLimelights();
-
-      // If bestPose is not null, add vision measurement to the drivetrain
-      // TODO: need to tune 0.7,0.7 values
-      if (bestPose != null) {
-        // TODO: Do we want to just only add or reset the whole pose?
-        m_robotContainer.drivetrain.addVisionMeasurement(bestPose.pose, bestPose.timestampSeconds, VecBuilder.fill(0.7,0.7,9999999));
-        //m_robotContainer.drivetrain.addVisionMeasurement(fusedPose.pose(), fusedPose.tiemstamp(), VecBuilder.fill(0.7,0.7,9999999));
-        //m_robotContainer.drivetrain.resetPose(bestPose.pose);
-      }
-    } catch(Error err) {
-      System.out.println(err);
-    }
+    // Re-share the battery between subsystems (limits only go out when they change)
+    m_robotContainer.currentBudget.update();
+
+    HubShooterTrajectoryCalc.setSlipOverride(SmartDashboard.getNumber(SLIP_KEY, Double.NaN));
+
     // TODO: Printing pose
     // System.out.println(m_robotContainer.drivetrain.getState().Pose);
 
@@ -35,9 +35,11 @@ import edu.wpi.first.wpilibj2.command.button.RobotModeTriggers;
 // Import Custom TunerConstants
 import frc.robot.generated.TunerConstants;
 import frc.robot.Constants.IndexerConstants;
+import frc.robot.Constants.PowerConstants;
 import frc.robot.Utils.JoystickScaler;
 import frc.robot.WildBoard.Panels.AutoChooser;
 // Import subystems
+import frc.robot.Actors.CurrentBudget;
 import frc.robot.Actors.Subsystems.CommandSwerveDrivetrain;
 import frc.robot.Actors.Subsystems.Intake.Intake;
 import frc.robot.Actors.Subsystems.Intake.IntakeExtension;
@@ -105,6 +107,12 @@ public class RobotContainer {
 
     private final PowerDistribution pdh = new PowerDistribution();
 
+    // Supply limits by priority: drivetrain (reserved) > shooter > indexer > intake
+    public final CurrentBudget currentBudget = new CurrentBudget(pdh, PowerConstants.drivetrainChannels)
+        .addGroup("Shooter", PowerConstants.shooterChannels, PowerConstants.shooterFloor_A, shooter.leadMotor, shooter.followMotor)
+        .addGroup("Indexer", PowerConstants.indexerChannels, PowerConstants.indexerFloor_A, indexer.motor, indexer.motor2, transfer.motor)
+        .addGroup("Intake", PowerConstants.intakeChannels, PowerConstants.intakeFloor_A, intake.motor);
+
     //public final Dashboard dashboard;
 
       /* Path follower */
@@ -0,0 +1,175 @@
+package frc.robot.Utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix6.StatusCode;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * AsyncConfigurator - Runs blocking device config calls off the main loop.
+ *
+ * A Phoenix configurator apply waits for the device to acknowledge, which can take tens
+ * of ms. Anything that reconfigures mid-match (powersave, current-limit profiles) submits
+ * the apply here instead. One daemon thread works through a bounded queue in submission
+ * order. Requests are keyed: submitting again under a key that is still queued replaces
+ * the queued task in place, so a device that flips limits several times before the
+ * worker gets to it only gets the last one.
+ *
+ * Tasks should capture the values they send when they're submitted, not read shared
+ * state when they run.
+ *
+ * Usage:
+ *   CurrentLimitsConfigs limits = new CurrentLimitsConfigs().withSupplyCurrentLimit(20.0);
+ *   AsyncConfigurator.submit(limitsKey, () -> motorTFX.getConfigurator().apply(limits));
+ *   boolean busy = AsyncConfigurator.isPending(limitsKey);
+ *   StatusCode error = AsyncConfigurator.getLastError();
+ */
+public class AsyncConfigurator {
+
+    // ========== CONSTANTS ==========
+    private static final int CAPACITY = 32;   // Distinct keys waiting; one or two per motor
+
+    // ========== STATE ==========
+    private static final Map<Object, Supplier<StatusCode>> queue = new LinkedHashMap<>();
+    private static Thread worker;
+    private static Object runningKey;
+    private static long submitted = 0;
+    private static long coalesced = 0;
+    private static long rejected = 0;
+    private static long completed = 0;
+    private static long failed = 0;
+    private static volatile StatusCode lastError = StatusCode.OK;
+    private static volatile double lastDuration_s = 0.0;
+    private static volatile double maxDuration_s = 0.0;
+
+    // ========== SUBMISSION ==========
+
+    /**
+     * Queues a config task. If a task with the same key is still waiting it is replaced
+     * and keeps its place in line.
+     *
+     * @param key  identifies what the task configures (compared with equals)
+     * @param task the blocking call, returning its status
+     * @return false if the queue was full and the task was dropped
+     */
+    public static synchronized boolean submit(Object key, Supplier<StatusCode> task) {
+        startWorker();
+        if (queue.containsKey(key)) {
+            queue.put(key, task);
+            coalesced++;
+            return true;
+        }
+        if (queue.size() >= CAPACITY) {
+            rejected++;
+            System.out.println("AsyncConfigurator: queue full, dropped " + key);
+            return false;
+        }
+        queue.put(key, task);
+        submitted++;
+        AsyncConfigurator.class.notifyAll();
+        return true;
+    }
+
+    /**
+     * @return true while a task for the key is queued or running
+     */
+    public static synchronized boolean isPending(Object key) {
+        return queue.containsKey(key) || key.equals(runningKey);
+    }
+
+    // ========== WORKER ==========
+
+    private static void startWorker() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(AsyncConfigurator::run, "AsyncConfigurator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private static void run() {
+        while (true) {
+            Object key;
+            Supplier<StatusCode> task;
+            synchronized (AsyncConfigurator.class) {
+                while (queue.isEmpty()) {
+                    try {
+                        AsyncConfigurator.class.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                Iterator<Map.Entry<Object, Supplier<StatusCode>>> it = queue.entrySet().iterator();
+                Map.Entry<Object, Supplier<StatusCode>> next = it.next();
+                it.remove();
+                key = next.getKey();
+                task = next.getValue();
+                runningKey = key;
+            }
+
+            double start_s = Timer.getFPGATimestamp();
+            StatusCode status;
+            try {
+                status = task.get();
+            } catch (RuntimeException e) {
+                System.out.println("AsyncConfigurator: " + key + " threw " + e);
+                status = StatusCode.GeneralError;
+            }
+            double duration_s = Timer.getFPGATimestamp() - start_s;
+
+            synchronized (AsyncConfigurator.class) {
+                runningKey = null;
+                completed++;
+                lastDuration_s = duration_s;
+                maxDuration_s = Math.max(maxDuration_s, duration_s);
+                if (!status.isOK()) {
+                    failed++;
+                    lastError = status;
+                    System.out.println("AsyncConfigurator: " + key + " failed: " + status);
+                }
+            }
+        }
+    }
+
+    // ========== STATUS ==========
+
+    /**
+     * @return the last non-OK status a task returned, OK if there never was one
+     */
+    public static StatusCode getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return tasks waiting, not counting the one running
+     */
+    public static synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    public static synchronized boolean isIdle() {
+        return queue.isEmpty() && runningKey == null;
+    }
+
+    public static double getLastDuration_s() {
+        return lastDuration_s;
+    }
+
+    public static double getMaxDuration_s() {
+        return maxDuration_s;
+    }
+
+    public static synchronized long getFailedCount() {
+        return failed;
+    }
+
+    public static synchronized String getStats() {
+        return String.format("%d submitted, %d coalesced, %d rejected, %d done, %d failed, last %.0f ms, max %.0f ms",
+                submitted, coalesced, rejected, completed, failed, lastDuration_s * 1000.0, maxDuration_s * 1000.0);
+    }
+}
@@ -0,0 +1,755 @@
+package frc.robot.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * BallisticsEngine - Shared ball physics and batched trajectory simulation.
+ *
+ * Holds the ball constants used by HubShooterTrajectoryCalc and RawTrajectoryCalc,
+ * and simulates many (speed, angle) candidates at once.
+ *
+ * Batch layout:
+ *   - Structure-of-arrays: state is [component][slot], component = {x, y, vx, vy}; stage
+ *     derivatives are [stage][slot] per component
+ *   - Drag, lift and gravity only depend on velocity, so each stage is one fused loop: stage
+ *     velocity, then its acceleration. Stage positions are never needed.
+ *   - Adaptive Dormand-Prince 5(4) with FSAL; one step size shared by the whole batch,
+ *     sized by the worst lane (candidates in a batch fly similar arcs, so this costs little)
+ *   - Fixed-step RK4 (10ms) and Euler (0.5ms) run through the same derivative and event
+ *     code, as references for the adaptive integrator (setIntegrator)
+ *   - Stage and derivative loops are plain indexed loops over primitive arrays with no
+ *     branches or calls besides Math.sqrt, so C2 can auto-vectorize them
+ *   - Lanes that finish are swapped out of the active range, so the loops only run
+ *     over trajectories still in flight
+ *
+ * Ball model (see {@link ShotModel}):
+ *   - Drag coefficient varies linearly with speed around DRAG_REF_SPEED_MPS
+ *   - Backspin lift: spin is assumed constant over the flight, so lift coefficient falls as
+ *     the ball slows (C_L ~ spin parameter = surface speed / speed) and lift force ends up
+ *     proportional to launch speed * current speed
+ *   - ShotModel.DEFAULT is the plain Cd = 0.47, no-spin model; fitted models come from
+ *     ShotModelFitter and are deployed as shot_model.properties
+ *
+ * Events (per lane, located inside each step with cubic Hermite interpolation):
+ *   - Height when crossing the vertical plane x = planeX (e.g. near edge of the hub)
+ *   - X when crossing the upper level while descending (e.g. hub lip), optional
+ *   - X and time when crossing the lower level while descending (the target); the lane stops here
+ *   - Peak height
+ *
+ * Usage:
+ *   BallisticsEngine engine = new BallisticsEngine(32);  // keep and reuse, not thread-safe
+ *   engine.setLaunchHeightM(0.533);
+ *   engine.setEvents(nearEdgeX, lipHeight, targetHeight);
+ *   engine.setLimits(0.0, hubDistance + 2.0, 3.0);
+ *   for (int i = 0; i < n; i++) engine.setLane(i, speed[i], angle[i]);
+ *   engine.simulate(n);
+ *   double landX = engine.getLandingXM(i);  // -1 if lane i never reached the target level
+ *
+ * A single trajectory is a 1-lane batch: setLane(0, ...), simulate(1).
+ */
+public class BallisticsEngine {
+
+    // ========== BALL PHYSICS ==========
+    public static final double BALL_DIAMETER_M = 0.150;        // 5.91" ball (not 6")
+    public static final double BALL_RADIUS_M = BALL_DIAMETER_M / 2;
+    public static final double BALL_MASS_KG = 0.215;
+    public static final double BALL_AREA_M2 = Math.PI * BALL_RADIUS_M * BALL_RADIUS_M;
+    public static final double DRAG_COEFF = 0.47;
+    public static final double AIR_DENSITY_KG_M3 = 1.225;
+    public static final double GRAVITY_MPS2 = 9.81;
+
+    /** 0.5 * rho * A / m: turns a drag or lift coefficient into accel per (m/s)^2 */
+    public static final double AERO_FACTOR = 0.5 * AIR_DENSITY_KG_M3 * BALL_AREA_M2 / BALL_MASS_KG;
+    /** Speed at which ShotModel.dragCoeff applies; Cd varies linearly around it */
+    public static final double DRAG_REF_SPEED_MPS = 10.0;
+
+    // ========== INTEGRATION PARAMETERS ==========
+    private static final double EULER_DT_S = 0.0005; // 0.5ms fixed step (Euler)
+    private static final double RK4_DT_S = 0.01;     // 10ms fixed step (RK4)
+    private static final double DP_TOLERANCE = 1e-7; // Mixed abs/rel error per step, worst lane
+    private static final double DP_INITIAL_DT_S = 0.05;
+    private static final double DP_MIN_DT_S = 1e-4;
+    private static final double DP_MAX_DT_S = 0.1;   // Keeps Hermite event interpolation tight
+
+    // Dormand-Prince 5(4) tableau
+    private static final double DP_A21 = 1.0 / 5;
+    private static final double DP_A31 = 3.0 / 40, DP_A32 = 9.0 / 40;
+    private static final double DP_A41 = 44.0 / 45, DP_A42 = -56.0 / 15, DP_A43 = 32.0 / 9;
+    private static final double DP_A51 = 19372.0 / 6561, DP_A52 = -25360.0 / 2187,
+                                DP_A53 = 64448.0 / 6561, DP_A54 = -212.0 / 729;
+    private static final double DP_A61 = 9017.0 / 3168, DP_A62 = -355.0 / 33, DP_A63 = 46732.0 / 5247,
+                                DP_A64 = 49.0 / 176, DP_A65 = -5103.0 / 18656;
+    private static final double DP_B1 = 35.0 / 384, DP_B3 = 500.0 / 1113, DP_B4 = 125.0 / 192,
+                                DP_B5 = -2187.0 / 6784, DP_B6 = 11.0 / 84;
+    private static final double DP_E1 = 71.0 / 57600, DP_E3 = -71.0 / 16695, DP_E4 = 71.0 / 1920,
+                                DP_E5 = -17253.0 / 339200, DP_E6 = 22.0 / 525, DP_E7 = -1.0 / 40;
+
+    // ========== INTEGRATOR ==========
+    public enum Integrator { EULER, RK4, DORMAND_PRINCE }
+
+    // ========== CONFIGURATION ==========
+    private Integrator integrator = Integrator.DORMAND_PRINCE;
+    private double launchHeight_m = 0.533;
+    private double planeX_m = Double.POSITIVE_INFINITY;   // Disabled by default
+    private double upperLevel_m = Double.NaN;             // Disabled by default
+    private double lowerLevel_m = 0.0;
+    private double minY_m = 0.0;
+    private double maxX_m = Double.POSITIVE_INFINITY;
+    private double maxTime_s = 3.0;
+    private ShotModel model = ShotModel.DEFAULT;
+    private double dragA_perM = ShotModel.DEFAULT.dragA();
+    private double dragB_perMps = ShotModel.DEFAULT.dragB();
+
+    // ========== LANE INPUTS / OUTPUTS (indexed by lane) ==========
+    private int capacity = 0;
+    private double[] speed_mps;
+    private double[] angle_deg;
+    private double[] liftRate_perS;        // Lift accel per m/s of speed, from the launch speed
+    private double[] heightAtPlane_m;
+    private double[] xAtUpperLevel_m;
+    private boolean[] descendingAtUpper;
+    private double[] landingX_m;
+    private double[] landingTime_s;
+    private double[] peakHeight_m;
+    private double[] finalX_m;
+    private double[] finalY_m;
+
+    // ========== BATCH STATE ==========
+    private double[][] s0, s1;             // [component][slot]
+    private double[][] ku, kw, kax, kay;   // [stage][slot]: dx/dt, dy/dt, dvx/dt, dvy/dt of each stage
+    private double[] errSq;
+    private int[] slotLane;
+    private boolean[] slotDone;
+
+    public BallisticsEngine(int initialCapacity) {
+        ensureCapacity(Math.max(1, initialCapacity));
+    }
+
+    // ========== CONFIGURATION SETTERS ==========
+
+    /** Launch (shooter exit) height for every lane. */
+    public void setLaunchHeightM(double value) { this.launchHeight_m = value; }
+
+    /**
+     * Event heights and plane.
+     * @param planeX_m Record height when crossing this x (POSITIVE_INFINITY to disable)
+     * @param upperLevel_m Record x when descending through this height (NaN to disable)
+     * @param lowerLevel_m Target height; a lane stops once it descends through it
+     */
+    public void setEvents(double planeX_m, double upperLevel_m, double lowerLevel_m) {
+        this.planeX_m = planeX_m;
+        this.upperLevel_m = upperLevel_m;
+        this.lowerLevel_m = lowerLevel_m;
+    }
+
+    /**
+     * Lanes that never reach the target level stop at any of these.
+     * @param minY_m Stop once height drops to this
+     * @param maxX_m Stop once past this distance
+     * @param maxTime_s Stop after this long
+     */
+    public void setLimits(double minY_m, double maxX_m, double maxTime_s) {
+        this.minY_m = minY_m;
+        this.maxX_m = maxX_m;
+        this.maxTime_s = maxTime_s;
+    }
+
+    /** Aerodynamic model (drag and spin lift) for every lane. Defaults to {@link ShotModel#DEFAULT}. */
+    public void setShotModel(ShotModel model) {
+        this.model = model;
+        this.dragA_perM = model.dragA();
+        this.dragB_perMps = model.dragB();
+    }
+
+    /** Integrator for every lane. Defaults to DORMAND_PRINCE. */
+    public void setIntegrator(Integrator value) { this.integrator = value; }
+
+    /**
+     * Sets the launch speed and elevation of one lane. Grows the batch as needed.
+     */
+    public void setLane(int lane, double speed_mps, double angle_deg) {
+        ensureCapacity(lane + 1);
+        this.speed_mps[lane] = speed_mps;
+        this.angle_deg[lane] = angle_deg;
+    }
+
+    // ========== LANE OUTPUT GETTERS ==========
+
+    /** Height at the event plane, -1 if never crossed. */
+    public double getHeightAtPlaneM(int lane) { return heightAtPlane_m[lane]; }
+    /** X when descending through the upper level, -1 if never crossed. */
+    public double getXAtUpperLevelM(int lane) { return xAtUpperLevel_m[lane]; }
+    /** Whether the ball was descending when crossing the upper level. */
+    public boolean isDescendingAtUpper(int lane) { return descendingAtUpper[lane]; }
+    /** X when descending through the target level, -1 if never reached. */
+    public double getLandingXM(int lane) { return landingX_m[lane]; }
+    /** Time of the target-level crossing. */
+    public double getLandingTimeS(int lane) { return landingTime_s[lane]; }
+    public double getPeakHeightM(int lane) { return peakHeight_m[lane]; }
+    /** Position where the lane stopped (the target crossing, or where a limit was hit). */
+    public double getFinalXM(int lane) { return finalX_m[lane]; }
+    public double getFinalYM(int lane) { return finalY_m[lane]; }
+
+    // ========== SIMULATION ==========
+
+    /**
+     * Simulates lanes [0, laneCount) to their target-level crossing or a limit.
+     * Results are available through the lane getters.
+     */
+    public void simulate(int laneCount) {
+        ensureCapacity(laneCount);
+        int n = laneCount;
+
+        double[] x = s0[0], y = s0[1], vx = s0[2], vy = s0[3];
+        for (int i = 0; i < n; i++) {
+            double angle_rad = Math.toRadians(angle_deg[i]);
+            x[i] = 0;
+            y[i] = launchHeight_m;
+            vx[i] = speed_mps[i] * Math.cos(angle_rad);
+            vy[i] = speed_mps[i] * Math.sin(angle_rad);
+            liftRate_perS[i] = model.liftRate(speed_mps[i]);
+            slotLane[i] = i;
+            heightAtPlane_m[i] = -1;
+            xAtUpperLevel_m[i] = -1;
+            descendingAtUpper[i] = false;
+            landingX_m[i] = -1;
+            landingTime_s[i] = 0;
+            peakHeight_m[i] = launchHeight_m;
+        }
+
+        switch (integrator) {
+            case RK4:
+                simulateFixed(n, RK4_DT_S, true);
+                break;
+            case EULER:
+                simulateFixed(n, EULER_DT_S, false);
+                break;
+            default:
+                simulateDormandPrince(n);
+                break;
+        }
+    }
+
+    /**
+     * Adaptive Dormand-Prince 5(4) with FSAL over the active slots.
+     */
+    private void simulateDormandPrince(int n) {
+        double h = DP_INITIAL_DT_S;
+        double t = 0;
+
+        initialStage(n);
+        while (n > 0) {
+            stage2(h, n);
+            stage3(h, n);
+            stage4(h, n);
+            stage5(h, n);
+            stage6(h, n);
+            solution(h, n);
+
+            double err = errorNorm(h, n);
+            if (err > 1.0 && h > DP_MIN_DT_S) {
+                // Reject and retry with a smaller step
+                h = Math.max(DP_MIN_DT_S, h * Math.max(0.2, 0.9 * Math.pow(err, -0.2)));
+                continue;
+            }
+
+            boolean outOfTime = t + h >= maxTime_s;
+            for (int i = 0; i < n; i++) {
+                slotDone[i] = onStep(i, t, h) || outOfTime;
+            }
+            t += h;
+            double[][] swap = s0; s0 = s1; s1 = swap;
+
+            // FSAL: last stage of this step is the first stage of the next
+            swapStages(ku);
+            swapStages(kw);
+            swapStages(kax);
+            swapStages(kay);
+            n = compact(n);
+
+            double grow = (err == 0) ? 5.0 : Math.min(5.0, Math.max(0.2, 0.9 * Math.pow(err, -0.2)));
+            h = Math.min(DP_MAX_DT_S, h * grow);
+        }
+    }
+
+    /**
+     * Fixed-step classic RK4 (rk4) or Euler over the active slots. Euler updates velocity
+     * first and moves with the new velocity (semi-implicit), as the original scalar loop did.
+     */
+    private void simulateFixed(int n, double h, boolean rk4) {
+        double t = 0;
+        while (n > 0) {
+            initialStage(n);
+            if (rk4) {
+                rk4Stage(0.5 * h, 0, 1, n);
+                rk4Stage(0.5 * h, 1, 2, n);
+                rk4Stage(h, 2, 3, n);
+                rk4Solution(h, n);
+            } else {
+                eulerSolution(h, n);
+            }
+
+            boolean outOfTime = t + h >= maxTime_s;
+            for (int i = 0; i < n; i++) {
+                slotDone[i] = onStep(i, t, h) || outOfTime;
+            }
+            t += h;
+            double[][] swap = s0; s0 = s1; s1 = swap;
+            n = compact(n);
+        }
+    }
+
+    /**
+     * Derivative of stage j at velocity (u, w): drag with a linear Cd(v), spin lift and gravity.
+     * Drag accel is (dragA + dragB * v) * v against the velocity; lift is lift * v rotated
+     * 90 degrees up from it (backspin). Small enough to inline, so the stage loops stay vectorizable.
+     */
+    private static void derivative(double u, double w, double lift, double dragA, double dragB,
+                                   double[] du, double[] dw, double[] dax, double[] day, int i) {
+        double v = Math.sqrt(u * u + w * w);
+        double kv = (dragA + dragB * v) * v;
+        du[i] = u;
+        dw[i] = w;
+        dax[i] = -kv * u - lift * w;
+        day[i] = -kv * w + lift * u - GRAVITY_MPS2;
+    }
+
+    // Stage loops: stage velocity = v + h * sum(a_j * accel_j), then its derivative
+
+    private void initialStage(int n) {
+        double[] lift = liftRate_perS;
+        double dragA = dragA_perM, dragB = dragB_perMps;
+        double[] vx = s0[2], vy = s0[3];
+        double[] u = ku[0], w = kw[0], ax = kax[0], ay = kay[0];
+        for (int i = 0; i < n; i++) {
+            derivative(vx[i], vy[i], lift[i], dragA, dragB, u, w, ax, ay, i);
+        }
+    }
+
+    private void stage2(double h, int n) {
+        double[] lift = liftRate_perS;
+        double dragA = dragA_perM, dragB = dragB_perMps;
+        double[] vx = s0[2], vy = s0[3];
+        double[] ax1 = kax[0], ay1 = kay[0];
+        double[] u = ku[1], w = kw[1], ax = kax[1], ay = kay[1];
+        for (int i = 0; i < n; i++) {
+            derivative(vx[i] + h * (DP_A21 * ax1[i]),
+                       vy[i] + h * (DP_A21 * ay1[i]), lift[i], dragA, dragB, u, w, ax, ay, i);
+        }
+    }
+
+    private void stage3(double h, int n) {
+        double[] lift = liftRate_perS;
+        double dragA = dragA_perM, dragB = dragB_perMps;
+        double[] vx = s0[2], vy = s0[3];
+        double[] ax1 = kax[0], ay1 = kay[0], ax2 = kax[1], ay2 = kay[1];
+        double[] u = ku[2], w = kw[2], ax = kax[2], ay = kay[2];
+        for (int i = 0; i < n; i++) {
+            derivative(vx[i] + h * (DP_A31 * ax1[i] + DP_A32 * ax2[i]),
+                       vy[i] + h * (DP_A31 * ay1[i] + DP_A32 * ay2[i]), lift[i], dragA, dragB, u, w, ax, ay, i);
+        }
+    }
+
+    private void stage4(double h, int n) {
+        double[] lift = liftRate_perS;
+        double dragA = dragA_perM, dragB = dragB_perMps;
+        double[] vx = s0[2], vy = s0[3];
+        double[] ax1 = kax[0], ay1 = kay[0], ax2 = kax[1], ay2 = kay[1], ax3 = kax[2], ay3 = kay[2];
+        double[] u = ku[3], w = kw[3], ax = kax[3], ay = kay[3];
+        for (int i = 0; i < n; i++) {
+            derivative(vx[i] + h * (DP_A41 * ax1[i] + DP_A42 * ax2[i] + DP_A43 * ax3[i]),
+                       vy[i] + h * (DP_A41 * ay1[i] + DP_A42 * ay2[i] + DP_A43 * ay3[i]), lift[i], dragA, dragB, u, w, ax, ay, i);
+        }
+    }
+
+    private void stage5(double h, int n) {
+        double[] lift = liftRate_perS;
+        double dragA = dragA_perM, dragB = dragB_perMps;
+        double[] vx = s0[2], vy = s0[3];
+        double[] ax1 = kax[0], ay1 = kay[0], ax2 = kax[1], ay2 = kay[1];
+        double[] ax3 = kax[2], ay3 = kay[2], ax4 = kax[3], ay4 = kay[3];
+        double[] u = ku[4], w = kw[4], ax = kax[4], ay = kay[4];
+        for (int i = 0; i < n; i++) {
+            derivative(vx[i] + h * (DP_A51 * ax1[i] + DP_A52 * ax2[i] + DP_A53 * ax3[i] + DP_A54 * ax4[i]),
+                       vy[i] + h * (DP_A51 * ay1[i] + DP_A52 * ay2[i] + DP_A53 * ay3[i] + DP_A54 * ay4[i]),
+                       lift[i], dragA, dragB, u, w, ax, ay, i);
+        }
+    }
+
+    private void stage6(double h, int n) {
+        double[] lift = liftRate_perS;
+        double dragA = dragA_perM, dragB = dragB_perMps;
+        double[] vx = s0[2], vy = s0[3];
+        double[] ax1 = kax[0], ay1 = kay[0], ax2 = kax[1], ay2 = kay[1], ax3 = kax[2], ay3 = kay[2];
+        double[] ax4 = kax[3], ay4 = kay[3], ax5 = kax[4], ay5 = kay[4];
+        double[] u = ku[5], w = kw[5], ax = kax[5], ay = kay[5];
+        for (int i = 0; i < n; i++) {
+            derivative(vx[i] + h * (DP_A61 * ax1[i] + DP_A62 * ax2[i] + DP_A63 * ax3[i]
+                                    + DP_A64 * ax4[i] + DP_A65 * ax5[i]),
+                       vy[i] + h * (DP_A61 * ay1[i] + DP_A62 * ay2[i] + DP_A63 * ay3[i]
+                                    + DP_A64 * ay4[i] + DP_A65 * ay5[i]),
+                       lift[i], dragA, dragB, u, w, ax, ay, i);
+        }
+    }
+
+    /**
+     * 5th order solution into s1, and its derivative as stage 7 (first stage of the next step).
+     */
+    private void solution(double h, int n) {
+        double[] lift = liftRate_perS;
+        double dragA = dragA_perM, dragB = dragB_perMps;
+        double[] x = s0[0], y = s0[1], vx = s0[2], vy = s0[3];
+        double[] x1 = s1[0], y1 = s1[1], vx1 = s1[2], vy1 = s1[3];
+        double[] u1 = ku[0], u3 = ku[2], u4 = ku[3], u5 = ku[4], u6 = ku[5];
+        double[] w1 = kw[0], w3 = kw[2], w4 = kw[3], w5 = kw[4], w6 = kw[5];
+        double[] ax1 = kax[0], ax3 = kax[2], ax4 = kax[3], ax5 = kax[4], ax6 = kax[5];
+        double[] ay1 = kay[0], ay3 = kay[2], ay4 = kay[3], ay5 = kay[4], ay6 = kay[5];
+        double[] u = ku[6], w = kw[6], ax = kax[6], ay = kay[6];
+        for (int i = 0; i < n; i++) {
+            x1[i] = x[i] + h * (DP_B1 * u1[i] + DP_B3 * u3[i] + DP_B4 * u4[i] + DP_B5 * u5[i] + DP_B6 * u6[i]);
+            y1[i] = y[i] + h * (DP_B1 * w1[i] + DP_B3 * w3[i] + DP_B4 * w4[i] + DP_B5 * w5[i] + DP_B6 * w6[i]);
+            double nvx = vx[i] + h * (DP_B1 * ax1[i] + DP_B3 * ax3[i] + DP_B4 * ax4[i]
+                                      + DP_B5 * ax5[i] + DP_B6 * ax6[i]);
+            double nvy = vy[i] + h * (DP_B1 * ay1[i] + DP_B3 * ay3[i] + DP_B4 * ay4[i]
+                                      + DP_B5 * ay5[i] + DP_B6 * ay6[i]);
+            vx1[i] = nvx;
+            vy1[i] = nvy;
+            derivative(nvx, nvy, lift[i], dragA, dragB, u, w, ax, ay, i);
+        }
+    }
+
+    /**
+     * RK4 stage: derivative at velocity v + c * accel of stage from, into stage to.
+     */
+    private void rk4Stage(double c, int from, int to, int n) {
+        double[] lift = liftRate_perS;
+        double dragA = dragA_perM, dragB = dragB_perMps;
+        double[] vx = s0[2], vy = s0[3];
+        double[] axFrom = kax[from], ayFrom = kay[from];
+        double[] u = ku[to], w = kw[to], ax = kax[to], ay = kay[to];
+        for (int i = 0; i < n; i++) {
+            derivative(vx[i] + c * axFrom[i], vy[i] + c * ayFrom[i], lift[i], dragA, dragB, u, w, ax, ay, i);
+        }
+    }
+
+    /**
+     * 4th order solution of the RK4 stages into s1.
+     */
+    private void rk4Solution(double h, int n) {
+        double[] x = s0[0], y = s0[1], vx = s0[2], vy = s0[3];
+        double[] x1 = s1[0], y1 = s1[1], vx1 = s1[2], vy1 = s1[3];
+        double[] u1 = ku[0], u2 = ku[1], u3 = ku[2], u4 = ku[3];
+        double[] w1 = kw[0], w2 = kw[1], w3 = kw[2], w4 = kw[3];
+        double[] ax1 = kax[0], ax2 = kax[1], ax3 = kax[2], ax4 = kax[3];
+        double[] ay1 = kay[0], ay2 = kay[1], ay3 = kay[2], ay4 = kay[3];
+        double c = h / 6.0;
+        for (int i = 0; i < n; i++) {
+            x1[i] = x[i] + c * (u1[i] + 2 * u2[i] + 2 * u3[i] + u4[i]);
+            y1[i] = y[i] + c * (w1[i] + 2 * w2[i] + 2 * w3[i] + w4[i]);
+            vx1[i] = vx[i] + c * (ax1[i] + 2 * ax2[i] + 2 * ax3[i] + ax4[i]);
+            vy1[i] = vy[i] + c * (ay1[i] + 2 * ay2[i] + 2 * ay3[i] + ay4[i]);
+        }
+    }
+
+    /**
+     * Semi-implicit Euler step into s1 from the stage 1 derivative.
+     */
+    private void eulerSolution(double h, int n) {
+        double[] x = s0[0], y = s0[1], vx = s0[2], vy = s0[3];
+        double[] x1 = s1[0], y1 = s1[1], vx1 = s1[2], vy1 = s1[3];
+        double[] ax1 = kax[0], ay1 = kay[0];
+        for (int i = 0; i < n; i++) {
+            double nvx = vx[i] + h * ax1[i];
+            double nvy = vy[i] + h * ay1[i];
+            vx1[i] = nvx;
+            vy1[i] = nvy;
+            x1[i] = x[i] + h * nvx;
+            y1[i] = y[i] + h * nvy;
+        }
+    }
+
+    /**
+     * Worst-lane RMS error of the step (difference between the 5th and embedded 4th order solutions).
+     * Per-lane error goes to errSq first so the arithmetic loop stays branch-free.
+     */
+    private double errorNorm(double h, int n) {
+        double[] x = s0[0], y = s0[1], vx = s0[2], vy = s0[3];
+        double[] x1 = s1[0], y1 = s1[1], vx1 = s1[2], vy1 = s1[3];
+        double[] u1 = ku[0], u3 = ku[2], u4 = ku[3], u5 = ku[4], u6 = ku[5], u7 = ku[6];
+        double[] w1 = kw[0], w3 = kw[2], w4 = kw[3], w5 = kw[4], w6 = kw[5], w7 = kw[6];
+        double[] ax1 = kax[0], ax3 = kax[2], ax4 = kax[3], ax5 = kax[4], ax6 = kax[5], ax7 = kax[6];
+        double[] ay1 = kay[0], ay3 = kay[2], ay4 = kay[3], ay5 = kay[4], ay6 = kay[5], ay7 = kay[6];
+        for (int i = 0; i < n; i++) {
+            double ex = h * (DP_E1 * u1[i] + DP_E3 * u3[i] + DP_E4 * u4[i]
+                             + DP_E5 * u5[i] + DP_E6 * u6[i] + DP_E7 * u7[i])
+                        / (DP_TOLERANCE * (1.0 + Math.max(Math.abs(x[i]), Math.abs(x1[i]))));
+            double ey = h * (DP_E1 * w1[i] + DP_E3 * w3[i] + DP_E4 * w4[i]
+                             + DP_E5 * w5[i] + DP_E6 * w6[i] + DP_E7 * w7[i])
+                        / (DP_TOLERANCE * (1.0 + Math.max(Math.abs(y[i]), Math.abs(y1[i]))));
+            double evx = h * (DP_E1 * ax1[i] + DP_E3 * ax3[i] + DP_E4 * ax4[i]
+                              + DP_E5 * ax5[i] + DP_E6 * ax6[i] + DP_E7 * ax7[i])
+                         / (DP_TOLERANCE * (1.0 + Math.max(Math.abs(vx[i]), Math.abs(vx1[i]))));
+            double evy = h * (DP_E1 * ay1[i] + DP_E3 * ay3[i] + DP_E4 * ay4[i]
+                              + DP_E5 * ay5[i] + DP_E6 * ay6[i] + DP_E7 * ay7[i])
+                         / (DP_TOLERANCE * (1.0 + Math.max(Math.abs(vy[i]), Math.abs(vy1[i]))));
+            errSq[i] = ex * ex + ey * ey + evx * evx + evy * evy;
+        }
+        double worst = 0;
+        for (int i = 0; i < n; i++) worst = Math.max(worst, errSq[i]);
+        return Math.sqrt(worst / 4);
+    }
+
+    private static void swapStages(double[][] k) {
+        double[] first = k[0];
+        k[0] = k[6];
+        k[6] = first;
+    }
+
+    /**
+     * Event detection for one slot over the step s0 -> s1. Each step is treated as a cubic
+     * Hermite curve through its endpoint positions and velocities.
+     * @return true once the lane is finished (target crossing found or a limit hit)
+     */
+    private boolean onStep(int slot, double t0, double h) {
+        int lane = slotLane[slot];
+        double x0 = s0[0][slot], y0 = s0[1][slot], vy0 = s0[3][slot];
+        double x1 = s1[0][slot], y1 = s1[1][slot], vy1 = s1[3][slot];
+        double mx0 = h * s0[2][slot], my0 = h * vy0;
+        double mx1 = h * s1[2][slot], my1 = h * vy1;
+
+        // Peak inside this step: vy changes sign, nearly linear in time near apex
+        double sStart = 0;
+        double yStart = y0;
+        if (vy0 > 0 && vy1 <= 0) {
+            sStart = vy0 / (vy0 - vy1);
+            yStart = hermite(y0, my0, y1, my1, sStart);
+            if (yStart > peakHeight_m[lane]) peakHeight_m[lane] = yStart;
+        }
+        if (y1 > peakHeight_m[lane]) peakHeight_m[lane] = y1;
+
+        // Height at the event plane
+        if (heightAtPlane_m[lane] < 0 && x0 < planeX_m && x1 >= planeX_m) {
+            double s = hermiteRoot(x0, mx0, x1, mx1, planeX_m, 0, 1);
+            heightAtPlane_m[lane] = hermite(y0, my0, y1, my1, s);
+        }
+
+        boolean descending = vy1 < 0;
+
+        // Upper level while DESCENDING
+        if (descending && xAtUpperLevel_m[lane] < 0 && yStart > upperLevel_m && y1 <= upperLevel_m) {
+            double s = hermiteRoot(y0, my0, y1, my1, upperLevel_m, sStart, 1);
+            xAtUpperLevel_m[lane] = hermite(x0, mx0, x1, mx1, s);
+            descendingAtUpper[lane] = hermiteSlope(y0, my0, y1, my1, s) < 0;
+        }
+
+        // Target level while DESCENDING
+        if (descending && yStart > lowerLevel_m && y1 <= lowerLevel_m) {
+            double s = hermiteRoot(y0, my0, y1, my1, lowerLevel_m, sStart, 1);
+            landingX_m[lane] = hermite(x0, mx0, x1, mx1, s);
+            landingTime_s[lane] = t0 + s * h;
+            finalX_m[lane] = landingX_m[lane];
+            finalY_m[lane] = lowerLevel_m;
+            return true;
+        }
+
+        return y1 <= minY_m || x1 > maxX_m;
+    }
+
+    /**
+     * Records where a lane that never reached the target level stopped.
+     */
+    private void finish(int lane, double x, double y) {
+        // Started past the plane: use the last height
+        if (heightAtPlane_m[lane] < 0 && x >= planeX_m) {
+            heightAtPlane_m[lane] = y;
+        }
+        finalX_m[lane] = x;
+        finalY_m[lane] = y;
+    }
+
+    /**
+     * Removes finished slots by moving the last active slot into their place.
+     * @return the new active slot count
+     */
+    private int compact(int n) {
+        for (int i = n - 1; i >= 0; i--) {
+            if (!slotDone[i]) continue;
+            int lane = slotLane[i];
+            if (landingX_m[lane] < 0) finish(lane, s0[0][i], s0[1][i]);
+            int last = --n;
+            if (i != last) {
+                for (int c = 0; c < 4; c++) {
+                    s0[c][i] = s0[c][last];
+                }
+                ku[0][i] = ku[0][last];
+                kw[0][i] = kw[0][last];
+                kax[0][i] = kax[0][last];
+                kay[0][i] = kay[0][last];
+                liftRate_perS[i] = liftRate_perS[last];
+                slotLane[i] = slotLane[last];
+                slotDone[i] = slotDone[last];
+            }
+        }
+        return n;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= capacity) return;
+        int size = Math.max(needed, capacity * 2);
+
+        speed_mps = grow(speed_mps, size);
+        angle_deg = grow(angle_deg, size);
+        liftRate_perS = new double[size];
+        heightAtPlane_m = new double[size];
+        xAtUpperLevel_m = new double[size];
+        descendingAtUpper = new boolean[size];
+        landingX_m = new double[size];
+        landingTime_s = new double[size];
+        peakHeight_m = new double[size];
+        finalX_m = new double[size];
+        finalY_m = new double[size];
+
+        s0 = new double[4][size];
+        s1 = new double[4][size];
+        ku = new double[7][size];
+        kw = new double[7][size];
+        kax = new double[7][size];
+        kay = new double[7][size];
+        errSq = new double[size];
+        slotLane = new int[size];
+        slotDone = new boolean[size];
+        capacity = size;
+    }
+
+    private static double[] grow(double[] old, int size) {
+        double[] grown = new double[size];
+        if (old != null) System.arraycopy(old, 0, grown, 0, old.length);
+        return grown;
+    }
+
+    // ========== SHOT MODEL ==========
+
+    /**
+     * Aerodynamic and launch coefficients, fitted offline from logged shots by ShotModelFitter.
+     * Immutable; stored as a small properties file next to the trajectory cache.
+     */
+    public static final class ShotModel {
+        public static final ShotModel DEFAULT = new ShotModel(DRAG_COEFF, 0.0, 0.0, 0.8, false);
+
+        /** Drag coefficient at DRAG_REF_SPEED_MPS */
+        public final double dragCoeff;
+        /** Change in drag coefficient per m/s above DRAG_REF_SPEED_MPS */
+        public final double dragSpeedSlope;
+        /** Lift coefficient at launch from backspin (0 = no spin, negative = topspin) */
+        public final double launchLiftCoeff;
+        /** Ball exit speed / roller surface speed */
+        public final double slipFactor;
+        /** True if fitted to logged shots (by ShotModelFitter or loaded from its file), even if it matches DEFAULT */
+        public final boolean fitted;
+
+        public ShotModel(double dragCoeff, double dragSpeedSlope, double launchLiftCoeff, double slipFactor,
+                         boolean fitted) {
+            this.dragCoeff = dragCoeff;
+            this.dragSpeedSlope = dragSpeedSlope;
+            this.launchLiftCoeff = launchLiftCoeff;
+            this.slipFactor = slipFactor;
+            this.fitted = fitted;
+        }
+
+        /** Constant part of drag accel per (m/s)^2 */
+        double dragA() { return AERO_FACTOR * (dragCoeff - dragSpeedSlope * DRAG_REF_SPEED_MPS); }
+
+        /** Speed-dependent part of drag accel per (m/s)^3 */
+        double dragB() { return AERO_FACTOR * dragSpeedSlope; }
+
+        /** Lift accel per m/s of current speed for a ball launched at launchSpeed_mps */
+        double liftRate(double launchSpeed_mps) { return AERO_FACTOR * launchLiftCoeff * launchSpeed_mps; }
+
+        /**
+         * Loads a model from a properties file. Missing keys keep their DEFAULT value.
+         * A model that loads counts as fitted.
+         * @return the model, or DEFAULT if the file does not exist or can't be read
+         */
+        public static ShotModel loadOrDefault(Path path) {
+            if (!Files.exists(path)) return DEFAULT;
+            Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(path)) {
+                props.load(in);
+                return new ShotModel(
+                    Double.parseDouble(props.getProperty("dragCoeff", Double.toString(DEFAULT.dragCoeff))),
+                    Double.parseDouble(props.getProperty("dragSpeedSlope", Double.toString(DEFAULT.dragSpeedSlope))),
+                    Double.parseDouble(props.getProperty("launchLiftCoeff", Double.toString(DEFAULT.launchLiftCoeff))),
+                    Double.parseDouble(props.getProperty("slipFactor", Double.toString(DEFAULT.slipFactor))),
+                    true);
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("ShotModel: Failed to load " + path + " (" + e.getMessage() + "), using default");
+                return DEFAULT;
+            }
+        }
+
+        public void save(Path path, String comment) throws IOException {
+            Properties props = new Properties();
+            props.setProperty("dragCoeff", Double.toString(dragCoeff));
+            props.setProperty("dragSpeedSlope", Double.toString(dragSpeedSlope));
+            props.setProperty("launchLiftCoeff", Double.toString(launchLiftCoeff));
+            props.setProperty("slipFactor", Double.toString(slipFactor));
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (OutputStream out = Files.newOutputStream(path)) {
+                props.store(out, comment);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Cd=%.4f dCd/dv=%.5f CL0=%.4f slip=%.4f (%s)",
+                                 dragCoeff, dragSpeedSlope, launchLiftCoeff, slipFactor, fitted ? "fitted" : "default");
+        }
+    }
+
+    // ========== HERMITE HELPERS ==========
+
+    /** Cubic Hermite value at s in [0,1]; m0/m1 are endpoint slopes already scaled by step length. */
+    static double hermite(double p0, double m0, double p1, double m1, double s) {
+        double s2 = s * s;
+        double s3 = s2 * s;
+        return (2 * s3 - 3 * s2 + 1) * p0 + (s3 - 2 * s2 + s) * m0
+             + (-2 * s3 + 3 * s2) * p1 + (s3 - s2) * m1;
+    }
+
+    /** Derivative of {@link #hermite} with respect to s. */
+    static double hermiteSlope(double p0, double m0, double p1, double m1, double s) {
+        double s2 = s * s;
+        return (6 * s2 - 6 * s) * p0 + (3 * s2 - 4 * s + 1) * m0
+             + (-6 * s2 + 6 * s) * p1 + (3 * s2 - 2 * s) * m1;
+    }
+
+    /**
+     * Find s in [lo, hi] where the Hermite curve crosses level.
+     * The crossing must be bracketed; uses Newton steps guarded by bisection.
+     */
+    static double hermiteRoot(double p0, double m0, double p1, double m1,
+                              double level, double lo, double hi) {
+        double fLo = hermite(p0, m0, p1, m1, lo) - level;
+        double s = lo + (hi - lo) * 0.5;
+        for (int iter = 0; iter < 12; iter++) {
+            double f = hermite(p0, m0, p1, m1, s) - level;
+            if (Math.abs(f) < 1e-9) break;
+            if ((f < 0) == (fLo < 0)) {
+                lo = s;
+                fLo = f;
+            } else {
+                hi = s;
+            }
+            double df = hermiteSlope(p0, m0, p1, m1, s);
+            double next = (df != 0) ? s - f / df : lo;
+            s = (next > lo && next < hi) ? next : 0.5 * (lo + hi);
+        }
+        return s;
+    }
+}
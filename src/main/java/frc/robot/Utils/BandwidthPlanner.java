@@ -0,0 +1,223 @@
+package frc.robot.Utils;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * BandwidthPlanner - Declarative status-signal update rates and CAN bus load budgeting.
+ *
+ * Subsystems declare the signals they read and how often they need them; devices are
+ * registered so everything nobody declared can be slowed down. apply() (once, after every
+ * subsystem is constructed) then per bus:
+ *   - sets each declared signal to the highest rate anyone asked for, one
+ *     setUpdateFrequencyForAll per rate
+ *   - runs optimizeBusUtilizationForAll on the registered devices, dropping every other
+ *     signal to OPTIMIZED_HZ
+ *   - prints the planned frame load and headroom against the bus capacity
+ *
+ * The estimate counts one frame per declared signal per period (Phoenix packs some signals
+ * into shared frames, so this errs high) plus a background allowance per device for the
+ * optimized signals. Measured utilization is available for the dashboard alarm.
+ *
+ * Usage:
+ *   BandwidthPlanner.declare("rio", motor.getVelocity(false), 100.0, "Shooter");
+ *   BandwidthPlanner.addDevice("rio", motor);
+ *   BandwidthPlanner.apply();                             // Robot constructor, after RobotContainer
+ *   double util = BandwidthPlanner.getMeasuredUtilization("drivetrain");
+ */
+public class BandwidthPlanner {
+
+    // ========== CONSTANTS ==========
+    public static final double OPTIMIZED_HZ = 4.0;                  // Phoenix minimum nonzero rate
+    private static final double CAN_FRAMES_PER_S = 1e6 / 130.0;     // 1 Mbps, ~130 bits per 8-byte frame
+    private static final double CAN_FD_FRAMES_PER_S = 20000.0;      //? 1/8 Mbps arbitration/data, ~50us per frame
+    private static final double BACKGROUND_FRAMES_PER_DEVICE = 20.0; //? optimized leftovers, frames/s per device
+    private static final double BUDGET = 0.7;                       // Leave 30% headroom for bursts and configs
+    private static final double MEASURE_PERIOD_S = 1.0;
+
+    /** Everything declared for one bus */
+    private static class Bus {
+        final String name;
+        final Map<BaseStatusSignal, Double> rates = new IdentityHashMap<>();
+        final Map<BaseStatusSignal, String> owners = new IdentityHashMap<>();
+        final List<ParentDevice> devices = new ArrayList<>();
+        CANBus canBus;
+        double plannedFramesPerS = 0.0;
+        double measuredUtilization = 0.0;
+        double lastMeasured_s = -MEASURE_PERIOD_S;
+
+        Bus(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final Map<String, Bus> buses = new LinkedHashMap<>();
+    private static boolean applied = false;
+
+    // ========== DECLARATION ==========
+
+    /**
+     * Declares that a signal is needed at a rate. The highest declared rate wins. After
+     * apply() the new rate takes effect immediately.
+     *
+     * @param canbus bus name the device is on ("" and "rio" are the same bus)
+     * @param signal the signal
+     * @param hz     rate needed, 0 to turn the signal off
+     * @param owner  who needs it, for the report
+     * @return the same signal
+     */
+    public static synchronized <T extends BaseStatusSignal> T declare(String canbus, T signal, double hz, String owner) {
+        Bus bus = bus(canbus);
+        Double previous = bus.rates.get(signal);
+        if (previous == null || hz > previous) {
+            bus.rates.put(signal, hz);
+            bus.owners.put(signal, owner);
+            if (applied) {
+                signal.setUpdateFrequency(hz);
+                plan(bus);
+            }
+        }
+        return signal;
+    }
+
+    /**
+     * Registers devices whose undeclared signals may be slowed to OPTIMIZED_HZ.
+     */
+    public static synchronized void addDevice(String canbus, ParentDevice... devices) {
+        Bus bus = bus(canbus);
+        for (ParentDevice device : devices) {
+            if (!bus.devices.contains(device)) {
+                bus.devices.add(device);
+            }
+        }
+    }
+
+    // ========== APPLY ==========
+
+    /**
+     * Applies every declaration and optimizes the remaining signals, then prints the plan.
+     */
+    public static synchronized void apply() {
+        for (Bus bus : buses.values()) {
+            // One call per distinct rate
+            Map<Double, List<BaseStatusSignal>> byRate = new TreeMap<>();
+            for (Map.Entry<BaseStatusSignal, Double> entry : bus.rates.entrySet()) {
+                byRate.computeIfAbsent(entry.getValue(), hz -> new ArrayList<>()).add(entry.getKey());
+            }
+            for (Map.Entry<Double, List<BaseStatusSignal>> entry : byRate.entrySet()) {
+                StatusCode status = BaseStatusSignal.setUpdateFrequencyForAll(entry.getKey(),
+                        entry.getValue().toArray(new BaseStatusSignal[0]));
+                if (!status.isOK()) {
+                    System.out.println("BandwidthPlanner: " + bus.name + " setUpdateFrequency(" + entry.getKey()
+                            + " Hz) failed: " + status);
+                }
+            }
+
+            // Declared rates above are explicit, so optimizing leaves them alone
+            if (!bus.devices.isEmpty()) {
+                StatusCode status = ParentDevice.optimizeBusUtilizationForAll(OPTIMIZED_HZ,
+                        bus.devices.toArray(new ParentDevice[0]));
+                if (!status.isOK()) {
+                    System.out.println("BandwidthPlanner: " + bus.name + " optimizeBusUtilization failed: " + status);
+                }
+            }
+            plan(bus);
+        }
+        applied = true;
+        printReport();
+    }
+
+    private static void plan(Bus bus) {
+        double frames = bus.devices.size() * BACKGROUND_FRAMES_PER_DEVICE;
+        for (double hz : bus.rates.values()) {
+            frames += hz;
+        }
+        bus.plannedFramesPerS = frames;
+    }
+
+    // ========== REPORTING ==========
+
+    /**
+     * @return planned share of the bus capacity (0-1+)
+     */
+    public static synchronized double getPlannedUtilization(String canbus) {
+        Bus bus = bus(canbus);
+        return bus.plannedFramesPerS / capacity(bus);
+    }
+
+    /**
+     * @return planned headroom below the budget (negative when over it)
+     */
+    public static double getHeadroom(String canbus) {
+        return BUDGET - getPlannedUtilization(canbus);
+    }
+
+    /**
+     * Measured bus utilization (0-1), sampled at most once a second since a CANivore status
+     * read can block for a millisecond.
+     */
+    public static synchronized double getMeasuredUtilization(String canbus) {
+        Bus bus = bus(canbus);
+        double now = Timer.getFPGATimestamp();
+        if (now - bus.lastMeasured_s >= MEASURE_PERIOD_S) {
+            bus.lastMeasured_s = now;
+            bus.measuredUtilization = isRio(bus.name)
+                    ? RobotController.getCANStatus().percentBusUtilization
+                    : canBus(bus).getStatus().BusUtilization;
+        }
+        return bus.measuredUtilization;
+    }
+
+    public static synchronized void printReport() {
+        for (Bus bus : buses.values()) {
+            System.out.printf("BandwidthPlanner: %s: %d signals on %d devices, ~%.0f frames/s, %.0f%% of capacity, %.0f%% headroom%n",
+                    bus.name, bus.rates.size(), bus.devices.size(), bus.plannedFramesPerS,
+                    100.0 * bus.plannedFramesPerS / capacity(bus),
+                    100.0 * (BUDGET - bus.plannedFramesPerS / capacity(bus)));
+            if (bus.plannedFramesPerS / capacity(bus) > BUDGET) {
+                // Biggest consumers first, so it's obvious what to cut
+                List<BaseStatusSignal> signals = new ArrayList<>(bus.rates.keySet());
+                signals.sort((a, b) -> Double.compare(bus.rates.get(b), bus.rates.get(a)));
+                for (int i = 0; i < Math.min(5, signals.size()); i++) {
+                    BaseStatusSignal signal = signals.get(i);
+                    System.out.printf("BandwidthPlanner:   %6.0f Hz %s (%s)%n",
+                            bus.rates.get(signal), signal.getName(), bus.owners.get(signal));
+                }
+            }
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    private static Bus bus(String canbus) {
+        String name = (canbus == null || canbus.isEmpty()) ? "rio" : canbus;
+        return buses.computeIfAbsent(name, Bus::new);
+    }
+
+    private static boolean isRio(String name) {
+        return name.equals("rio");
+    }
+
+    private static CANBus canBus(Bus bus) {
+        if (bus.canBus == null) {
+            bus.canBus = new CANBus(bus.name);
+        }
+        return bus.canBus;
+    }
+
+    private static double capacity(Bus bus) {
+        return (!isRio(bus.name) && canBus(bus).isNetworkFD()) ? CAN_FD_FRAMES_PER_S : CAN_FRAMES_PER_S;
+    }
+}
@@ -1,6 +1,22 @@
 package frc.robot.Utils;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+import frc.robot.Utils.BallisticsEngine.Integrator;
+import frc.robot.Utils.BallisticsEngine.ShotModel;
 
 /**
  * HubShooterTrajectoryCalc - Calculates elevation angle and shooter speed for hub shots.
@@ -22,6 +38,11 @@ import java.io.*;
  *   - Dual coned TPR rollers, 88.9mm effective diameter
  *   - Exit velocity = PI * 0.0889 * RPS * slip_factor
  * 
+ * Ball model:
+ *   - Drag with a speed-dependent coefficient plus backspin lift, from BallisticsEngine.ShotModel
+ *   - setShotModel() selects it for every calculator and the cache; the robot loads the fitted
+ *     model from the deploy directory (see ShotModelFitter), otherwise Cd = 0.47 and no spin
+ * 
  * Usage:
  *   // Option 1: Direct calculation
  *   HubShooterTrajectoryCalc calc = new HubShooterTrajectoryCalc();
@@ -29,9 +50,33 @@ import java.io.*;
  *   calc.setHubDistanceM(3.0);
  *   if (calc.run()) { ... }
  * 
+ *   // Option 1b: Newton solve (~15 simulations instead of a grid sweep)
+ *   calc.setSolverMode(SolverMode.NEWTON);
+ *   if (calc.run()) { ... }
+ * 
  *   // Option 2: Use cache for fast lookup
  *   HubShooterTrajectoryCalc.initializeCache();
  *   CacheEntry entry = HubShooterTrajectoryCalc.lookupCache(3.0);
+ *   // or, allocation-free in the robot loop:
+ *   HubShooterTrajectoryCalc.lookupInto(3.0, solution);  // solution is a reused MutableShotSolution
+ * 
+ * 
+ * Slip:
+ *   The cache is solved at slip 1.0, and slip only scales the RPS conversion, so it is applied
+ *   at lookup (see getSlipFactor). setSlipOverride() tunes it live without re-solving.
+ * 
+ * Integrators (setIntegrator, all run by BallisticsEngine):
+ *   - EULER:          Euler at 0.5ms, up to 6000 steps per trajectory (reference)
+ *   - RK4:            classic 4th order Runge-Kutta at 10ms, ~150 steps
+ *   - DORMAND_PRINCE: adaptive 5(4) Runge-Kutta, typically 10-20 steps (default)
+ *   The near-edge, peak, lip and target crossings are located inside each step with
+ *   cubic Hermite interpolation, so the large steps don't cost accuracy on the events
+ *   the solver actually checks.
+ * 
+ * Batch simulation (setBatchSimulation, default on):
+ *   The sweep and the hinted search hand whole candidate sets to BallisticsEngine
+ *   (all angles per speed step, all per-angle bisections per step). With it off, and in
+ *   the Newton solver, each trajectory is a 1-lane engine batch.
  */
 public class HubShooterTrajectoryCalc {
     
@@ -39,40 +84,66 @@ public class HubShooterTrajectoryCalc {
     private static final double HUB_LIP_HEIGHT_M = 1.829;       // 72" lip height (top of funnel)
     private static final double HUB_OPENING_DIAMETER_M = 1.059; // 41.7" opening at top
     private static final double HUB_OPENING_RADIUS_M = HUB_OPENING_DIAMETER_M / 2;  // 0.529m
-    private static final double TARGET_HEIGHT_M = 1.524;        // 60" - target height at hub center
-    private static final double TARGET_TOLERANCE_M = 0.1524;    // 6" tolerance for landing
-    
-    // ========== BALL PHYSICS ==========
-    private static final double BALL_DIAMETER_M = 0.150;        // 5.91" ball (not 6")
-    private static final double BALL_RADIUS_M = BALL_DIAMETER_M / 2;
-    private static final double BALL_MASS_KG = 0.215;
-    private static final double BALL_AREA_M2 = Math.PI * BALL_RADIUS_M * BALL_RADIUS_M;
-    private static final double DRAG_COEFF = 0.47;
-    private static final double AIR_DENSITY_KG_M3 = 1.225;
-    private static final double GRAVITY_MPS2 = 9.81;
+    static final double TARGET_HEIGHT_M = 1.524;                // 60" - target height at hub center
+    static final double TARGET_TOLERANCE_M = 0.1524;            // 6" tolerance for landing
+    
+    // ========== BALL PHYSICS (shared, see BallisticsEngine) ==========
+    private static final double BALL_DIAMETER_M = BallisticsEngine.BALL_DIAMETER_M;
+    private static final double BALL_RADIUS_M = BallisticsEngine.BALL_RADIUS_M;
+    private static final double BALL_MASS_KG = BallisticsEngine.BALL_MASS_KG;
+    private static final double AIR_DENSITY_KG_M3 = BallisticsEngine.AIR_DENSITY_KG_M3;
+    private static final double GRAVITY_MPS2 = BallisticsEngine.GRAVITY_MPS2;
+
+    // Drag and spin lift; DEFAULT unless a fitted model is loaded (see ShotModelFitter)
+    private static volatile ShotModel shotModel = ShotModel.DEFAULT;
     
     // ========== CLEARANCE ==========
     private static final double LIP_FUDGE_M = 0.3048;  // 12" extra clearance
     private static final double LIP_CLEARANCE_HEIGHT_M = HUB_LIP_HEIGHT_M + BALL_RADIUS_M + LIP_FUDGE_M;
     
     // ========== SHOOTER CONSTANTS ==========
-    private static final double ROLLER_DIAMETER_M = 0.0508;  // 2.25" effective
+    static final double ROLLER_DIAMETER_M = 0.0508;  // 2.25" effective
     
     // ========== SIMULATION PARAMETERS ==========
-    private static final double DT_S = 0.0005;       // 0.5ms timestep
     private static final double MAX_SIM_TIME_S = 3.0;
     
+    // ========== NEWTON SOLVER PARAMETERS ==========
+    private static final int NEWTON_MAX_ITERATIONS = 10;
+    private static final double NEWTON_TOLERANCE_M = 0.001;     // Landing X and near-edge height residuals
+    private static final double NEWTON_LIP_MARGIN_M = 0.002;    // Aim just above clearance so >= checks pass
+    private static final double NEWTON_ANGLE_DELTA_DEG = 0.01;  // Finite-difference Jacobian steps
+    private static final double NEWTON_SPEED_DELTA_MPS = 0.001;
+    private static final double NEWTON_MAX_ANGLE_STEP_DEG = 5.0;
+    private static final double NEWTON_MAX_SPEED_STEP_MPS = 2.0;
+    private static final double NEWTON_PROBE_DEG = 0.25;        // Steeper probe to test if lip is the active constraint
+    
     // ========== CACHE PARAMETERS ==========
     private static final double CACHE_MIN_DISTANCE_M = 1.0;
     private static final double CACHE_MAX_DISTANCE_M = 8.0;
-    private static final int CACHE_SIZE = 50;
+    private static final int CACHE_SIZE = 701;        // 1cm steps; solved at build time, see generateCacheFile
     private static final double CACHE_STEP_M = (CACHE_MAX_DISTANCE_M - CACHE_MIN_DISTANCE_M) / (CACHE_SIZE - 1);
-    private static final String CACHE_FILE = System.getProperty("user.home", "/home/lvuser") + "/trajectory_cache.json";
+    private static final String CACHE_FILE = System.getProperty("user.home", "/home/lvuser") + "/trajectory_cache.bin";
+    public static final String DEPLOY_CACHE_FILE_NAME = "trajectory_cache.bin";  // In the deploy directory
+    public static final String DEPLOY_MODEL_FILE_NAME = "shot_model.properties"; // Fitted ShotModel, optional
+    private static final Integrator CACHE_INTEGRATOR = Integrator.DORMAND_PRINCE;
+    private static final int CACHE_MAGIC = 0x48535443;        // "HSTC"
+    private static final int CACHE_FORMAT_VERSION = 1;
+    private static final int CACHE_HEADER_BYTES = 6 * Integer.BYTES;  // Keeps double arrays 8-byte aligned
+    private static final int CACHE_CHUNK_SIZE = 10;  // Entries per warm-started chunk in parallel builds
     
     // ========== CACHE STORAGE ==========
-    private static CacheEntry[] cache = null;
+    // Structure-of-arrays, indexed by distance step (distance = CACHE_MIN_DISTANCE_M + i * CACHE_STEP_M)
+    private static double[] cacheElevation_deg = null;
+    private static double[] cacheSpeed_rps = null;
+    private static double[] cacheAirtime_s = null;
+    private static double[] cachePeakHeight_m = null;
+    private static boolean[] cacheValid = null;
     private static boolean cacheInitialized = false;
+    private static boolean warnedUninitialized = false;  // lookupInto runs several times a loop, complain once
     private static double cacheShooterHeight_m = 0.533;  // Shooter height used for cache
+    private static boolean parallelCacheBuild = true;
+    private static ForkJoinPool cachePool = null;        // Shared by every row of every build, created on first use
+    private static volatile double slipOverride = Double.NaN;  // Live slip tuning, NaN = shot model's slip
     
     // ========== INPUTS ==========
     private double shooterHeight_m = 0.533;   // 21"
@@ -80,6 +151,17 @@ public class HubShooterTrajectoryCalc {
     private double slipFactor = 0.8;
     private double maxElevation_deg = 85.0;
     private double minElevation_deg = 40.0;
+    private Integrator integrator = Integrator.DORMAND_PRINCE;
+    private SolverMode solverMode = SolverMode.SWEEP;
+    private boolean batchSimulation = true;
+    
+    // ========== INTEGRATOR SCRATCH (reused, not thread-safe) ==========
+    private final BallisticsEngine engine = new BallisticsEngine(32);
+    private double[] laneAngle_deg = new double[32];  // Batch searches: per-lane angle and speed bracket
+    private double[] laneMin_mps = new double[32];
+    private double[] laneMax_mps = new double[32];
+    private double[] laneSpeed_mps = new double[32];   // Solved speed, -1 while unsolved
+    private int[] laneSlots = new int[32];             // Engine slot -> lane for the current batch
     
     // ========== OUTPUTS ==========
     private double elevation_deg = 0.0;
@@ -88,6 +170,10 @@ public class HubShooterTrajectoryCalc {
     private double airtime_s = 0.0;
     private double landingX_m = 0.0;
     
+    // ========== SOLVER MODE ==========
+    /** SWEEP: 0.5 deg angle grid x 0.2 m/s speed grid. NEWTON: 2-D Newton on (angle, speed), falls back to SWEEP. */
+    public enum SolverMode { SWEEP, NEWTON }
+    
     // ========== CACHE ENTRY CLASS ==========
     public static class CacheEntry {
         public final double distance_m;
@@ -108,6 +194,21 @@ public class HubShooterTrajectoryCalc {
         }
     }
     
+    // ========== MUTABLE RESULT CLASS ==========
+    
+    /**
+     * Caller-owned, reusable lookup result. Same fields as CacheEntry but mutable,
+     * so hot-path lookups can write into it instead of allocating.
+     */
+    public static class MutableShotSolution {
+        public double distance_m;
+        public double elevation_deg;
+        public double speed_rps;
+        public double airtime_s;
+        public double peakHeight_m;
+        public boolean valid;
+    }
+    
     // ========== CONSTRUCTOR ==========
     public HubShooterTrajectoryCalc() {}
     
@@ -117,6 +218,10 @@ public class HubShooterTrajectoryCalc {
     public void setSlipPercentage(double value) { this.slipFactor = value; }
     public void setMaxElevationDeg(double value) { this.maxElevation_deg = value; }
     public void setMinElevationDeg(double value) { this.minElevation_deg = value; }
+    public void setIntegrator(Integrator value) { this.integrator = value; }
+    public void setSolverMode(SolverMode value) { this.solverMode = value; }
+    /** Batch (default): sweeps simulate whole candidate sets per step. Off: one trajectory at a time. */
+    public void setBatchSimulation(boolean value) { this.batchSimulation = value; }
     
     // ========== INPUT GETTERS ==========
     public double getShooterHeightM() { return shooterHeight_m; }
@@ -124,6 +229,9 @@ public class HubShooterTrajectoryCalc {
     public double getSlipPercentage() { return slipFactor; }
     public double getMaxElevationDeg() { return maxElevation_deg; }
     public double getMinElevationDeg() { return minElevation_deg; }
+    public Integrator getIntegrator() { return integrator; }
+    public SolverMode getSolverMode() { return solverMode; }
+    public boolean isBatchSimulation() { return batchSimulation; }
     
     // ========== OUTPUT GETTERS ==========
     public double getElevationDeg() { return elevation_deg; }
@@ -140,9 +248,26 @@ public class HubShooterTrajectoryCalc {
      * @param shooterHeight_m Shooter height to use for all cache entries
      */
     public static void initializeCache(double shooterHeight_m) {
+        initializeCache(shooterHeight_m, null);
+    }
+    
+    /**
+     * Initialize the cache, preferring a table generated at build time and shipped in the
+     * deploy directory (see the generateTrajectoryCache Gradle task). The deployed file is
+     * only read, never written. Falls back to the home-directory cache, then to building.
+     * @param shooterHeight_m Shooter height to use for all cache entries
+     * @param deployedCache Path to the deployed cache file, or null to skip it
+     */
+    public static void initializeCache(double shooterHeight_m, Path deployedCache) {
+        if (deployedCache != null && loadCacheFromFile(deployedCache, shooterHeight_m)) {
+            System.out.println("HubShooterTrajectoryCalc: Cache loaded from " + deployedCache);
+            return;
+        }
+        
         // Try to load from file first (will verify parameters match)
-        if (loadCacheFromFile(shooterHeight_m)) {
-            System.out.println("HubShooterTrajectoryCalc: Cache loaded from " + CACHE_FILE);
+        Path homeCache = Paths.get(CACHE_FILE);
+        if (loadCacheFromFile(homeCache, shooterHeight_m)) {
+            System.out.println("HubShooterTrajectoryCalc: Cache loaded from " + homeCache);
             return;
         }
         
@@ -150,7 +275,35 @@ public class HubShooterTrajectoryCalc {
         buildCache(shooterHeight_m);
         
         // Save to file for next time
-        saveCacheToFile();
+        saveCacheToFile(homeCache);
+    }
+    
+    /**
+     * Initialize cache with default shooter height, preferring the deployed table.
+     * @param deployedCache Path to the deployed cache file
+     */
+    public static void initializeCache(Path deployedCache) {
+        initializeCache(0.533, deployedCache);
+    }
+    
+    /**
+     * Select serial or fork-join cache building. Takes effect on the next build.
+     * @param parallel true to split the distance range across all available cores
+     */
+    public static void setParallelCacheBuild(boolean parallel) {
+        parallelCacheBuild = parallel;
+    }
+    
+    /**
+     * Select the drag / spin-lift model used by every calculator. Set it before
+     * initializeCache: a cache solved with a different model fails the hash check and is rebuilt.
+     */
+    public static void setShotModel(ShotModel model) {
+        shotModel = model;
+    }
+    
+    public static ShotModel getShotModel() {
+        return shotModel;
     }
     
     /** Initialize cache with default shooter height (0.533m / 21") */
@@ -160,213 +313,318 @@ public class HubShooterTrajectoryCalc {
     
     /**
      * Build the cache from scratch (computation-intensive).
+     * In parallel mode the distance range is split into fixed-size chunks solved on a
+     * ForkJoinPool; each chunk writes only its own slice of the cache array, so the merged
+     * result is identical regardless of thread count or scheduling order.
      */
     private static void buildCache(double shooterHeight_m) {
-        System.out.println("HubShooterTrajectoryCalc: Building cache (" + CACHE_SIZE + " entries)...");
+        System.out.println("HubShooterTrajectoryCalc: Building cache (" + CACHE_SIZE + " entries"
+                           + (parallelCacheBuild ? ", parallel" : "") + ")...");
         long startTime = System.currentTimeMillis();
         
         cacheShooterHeight_m = shooterHeight_m;
-        cache = new CacheEntry[CACHE_SIZE];
+        CacheEntry[] entries = solveDistanceRow(shooterHeight_m);
         
+        int validCount = 0;
+        for (CacheEntry e : entries) {
+            if (e.valid) validCount++;
+        }
+        
+        storeCache(entries);
+        long elapsed = System.currentTimeMillis() - startTime;
+        System.out.printf("HubShooterTrajectoryCalc: Cache built in %dms (%d/%d valid)%n",
+                          elapsed, validCount, CACHE_SIZE);
+    }
+    
+    /**
+     * Copy solved entries into the structure-of-arrays cache storage and mark it ready.
+     */
+    private static void storeCache(CacheEntry[] entries) {
+        double[] elevation = new double[CACHE_SIZE];
+        double[] speed = new double[CACHE_SIZE];
+        double[] airtime = new double[CACHE_SIZE];
+        double[] peak = new double[CACHE_SIZE];
+        boolean[] valid = new boolean[CACHE_SIZE];
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            elevation[i] = entries[i].elevation_deg;
+            speed[i] = entries[i].speed_rps;
+            airtime[i] = entries[i].airtime_s;
+            peak[i] = entries[i].peakHeight_m;
+            valid[i] = entries[i].valid;
+        }
+        cacheElevation_deg = elevation;
+        cacheSpeed_rps = speed;
+        cacheAirtime_s = airtime;
+        cachePeakHeight_m = peak;
+        cacheValid = valid;
+        cacheInitialized = true;
+    }
+    
+    /**
+     * Solve every cache distance for one shooter height, serially or on a ForkJoinPool.
+     */
+    private static CacheEntry[] solveDistanceRow(double shooterHeight_m) {
+        CacheEntry[] entries = new CacheEntry[CACHE_SIZE];
+        if (parallelCacheBuild) {
+            getCachePool().invoke(new CacheChunkTask(entries, shooterHeight_m, 0, CACHE_SIZE));
+        } else {
+            solveCacheRange(entries, shooterHeight_m, 0, CACHE_SIZE);
+        }
+        return entries;
+    }
+    
+    /**
+     * One pool for all parallel builds. Its workers are daemon threads and retire when idle,
+     * so it is never shut down.
+     */
+    private static synchronized ForkJoinPool getCachePool() {
+        if (cachePool == null) {
+            cachePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return cachePool;
+    }
+    
+    /**
+     * Solve cache entries [from, to), warm-starting each entry from the previous one.
+     * The first entry of the range is seeded with a full search.
+     */
+    private static void solveCacheRange(CacheEntry[] out, double shooterHeight_m, int from, int to) {
         HubShooterTrajectoryCalc calc = new HubShooterTrajectoryCalc();
         calc.setShooterHeightM(shooterHeight_m);
         calc.setSlipPercentage(1.0);
         calc.setMinElevationDeg(40.0);
         calc.setMaxElevationDeg(85.0);
+        calc.setIntegrator(CACHE_INTEGRATOR);
         
-        int validCount = 0;
         double hintAngle = -1;
         double hintSpeed = -1;
         
-        for (int i = 0; i < CACHE_SIZE; i++) {
+        for (int i = from; i < to; i++) {
             double distance = CACHE_MIN_DISTANCE_M + i * CACHE_STEP_M;
             calc.setHubDistanceM(distance);
             
             boolean success;
             if (hintAngle < 0) {
+                // Seed with the coarse full search, then refine it with the finer hinted
+                // search so chunk seeds match entries reached by chaining
                 success = calc.run();
+                if (success) {
+                    success = calc.runWithHint(calc.getElevationDeg(),
+                                               calc.getShooterSpeedRps() * Math.PI * ROLLER_DIAMETER_M);
+                }
             } else {
                 success = calc.runWithHint(hintAngle, hintSpeed);
             }
             
             if (success) {
-                cache[i] = new CacheEntry(distance, calc.getElevationDeg(), calc.getShooterSpeedRps(),
-                                          calc.getAirtimeS(), calc.getPeakHeightM(), true);
+                out[i] = new CacheEntry(distance, calc.getElevationDeg(), calc.getShooterSpeedRps(),
+                                        calc.getAirtimeS(), calc.getPeakHeightM(), true);
                 hintAngle = calc.getElevationDeg();
                 hintSpeed = calc.getShooterSpeedRps() * Math.PI * ROLLER_DIAMETER_M;
-                validCount++;
             } else {
-                cache[i] = new CacheEntry(distance, 0, 0, 0, 0, false);
+                out[i] = new CacheEntry(distance, 0, 0, 0, 0, false);
                 hintAngle = -1;
                 hintSpeed = -1;
             }
-            
-            if ((i + 1) % 100 == 0) {
-                System.out.printf("  ... %d/%d entries%n", i + 1, CACHE_SIZE);
-            }
         }
-        
-        cacheInitialized = true;
-        long elapsed = System.currentTimeMillis() - startTime;
-        System.out.printf("HubShooterTrajectoryCalc: Cache built in %dms (%d/%d valid)%n",
-                          elapsed, validCount, CACHE_SIZE);
     }
     
     /**
-     * Save cache to JSON file with all configuration parameters.
-     */
-    private static void saveCacheToFile() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(CACHE_FILE))) {
-            writer.println("{");
-            writer.println("  \"version\": 2,");
-            writer.println("  \"config\": {");
-            writer.println("    \"shooterHeight_m\": " + cacheShooterHeight_m + ",");
-            writer.println("    \"hubLipHeight_m\": " + HUB_LIP_HEIGHT_M + ",");
-            writer.println("    \"hubOpeningDiameter_m\": " + HUB_OPENING_DIAMETER_M + ",");
-            writer.println("    \"targetHeight_m\": " + TARGET_HEIGHT_M + ",");
-            writer.println("    \"targetTolerance_m\": " + TARGET_TOLERANCE_M + ",");
-            writer.println("    \"ballDiameter_m\": " + BALL_DIAMETER_M + ",");
-            writer.println("    \"rollerDiameter_m\": " + ROLLER_DIAMETER_M);
-            writer.println("  },");
-            writer.println("  \"cache\": {");
-            writer.println("    \"size\": " + CACHE_SIZE + ",");
-            writer.println("    \"minDistance\": " + CACHE_MIN_DISTANCE_M + ",");
-            writer.println("    \"maxDistance\": " + CACHE_MAX_DISTANCE_M);
-            writer.println("  },");
-            writer.println("  \"entries\": [");
-            
-            for (int i = 0; i < CACHE_SIZE; i++) {
-                CacheEntry e = cache[i];
-                StringBuilder line = new StringBuilder("    {");
-                line.append("\"d\":").append(String.format("%.4f", e.distance_m)).append(",");
-                line.append("\"e\":").append(String.format("%.2f", e.elevation_deg)).append(",");
-                line.append("\"r\":").append(String.format("%.2f", e.speed_rps)).append(",");
-                line.append("\"a\":").append(String.format("%.4f", e.airtime_s)).append(",");
-                line.append("\"p\":").append(String.format("%.3f", e.peakHeight_m)).append(",");
-                line.append("\"v\":").append(e.valid);
-                line.append("}");
-                if (i < CACHE_SIZE - 1) line.append(",");
-                writer.println(line.toString());
+     * Fork-join task over a cache index range. Splits on CACHE_CHUNK_SIZE boundaries
+     * (not on thread count) so chunk seeds, and therefore results, are deterministic.
+     */
+    private static class CacheChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final CacheEntry[] out;
+        private final double shooterHeight_m;
+        private final int from;
+        private final int to;
+        
+        CacheChunkTask(CacheEntry[] out, double shooterHeight_m, int from, int to) {
+            this.out = out;
+            this.shooterHeight_m = shooterHeight_m;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            int chunks = (to - from + CACHE_CHUNK_SIZE - 1) / CACHE_CHUNK_SIZE;
+            if (chunks <= 1) {
+                solveCacheRange(out, shooterHeight_m, from, to);
+                return;
             }
-            
-            writer.println("  ]");
-            writer.println("}");
-            System.out.println("HubShooterTrajectoryCalc: Cache saved to " + CACHE_FILE);
+            int mid = from + (chunks / 2) * CACHE_CHUNK_SIZE;
+            invokeAll(new CacheChunkTask(out, shooterHeight_m, from, mid),
+                      new CacheChunkTask(out, shooterHeight_m, mid, to));
+        }
+    }
+    
+    /**
+     * Save cache to the binary cache file.
+     * 
+     * Layout (little-endian):
+     *   int magic, int format version, int config hash, int entry count, int payload CRC32, int reserved
+     *   double[count] elevation, speed, airtime, peak height
+     *   byte[count]   valid (0/1)
+     * Written to a temp file then moved into place so a partial write never looks valid.
+     */
+    static void saveCacheToFile(Path target) {
+        ByteBuffer payload = ByteBuffer.allocate(CACHE_SIZE * (4 * Double.BYTES + 1)).order(ByteOrder.LITTLE_ENDIAN);
+        for (double v : cacheElevation_deg) payload.putDouble(v);
+        for (double v : cacheSpeed_rps) payload.putDouble(v);
+        for (double v : cacheAirtime_s) payload.putDouble(v);
+        for (double v : cachePeakHeight_m) payload.putDouble(v);
+        for (boolean v : cacheValid) payload.put((byte) (v ? 1 : 0));
+        payload.flip();
+        
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        
+        ByteBuffer header = ByteBuffer.allocate(CACHE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(CACHE_MAGIC);
+        header.putInt(CACHE_FORMAT_VERSION);
+        header.putInt(configHash(cacheShooterHeight_m));
+        header.putInt(CACHE_SIZE);
+        header.putInt((int) crc.getValue());
+        header.putInt(0);
+        header.flip();
+        
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) channel.write(header);
+            while (payload.hasRemaining()) channel.write(payload);
+            channel.force(true);
         } catch (IOException e) {
             System.err.println("Warning: Could not save cache file: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e2) {
+                System.err.println("Warning: Could not save cache file: " + e2.getMessage());
+                return;
+            }
         }
+        System.out.println("HubShooterTrajectoryCalc: Cache saved to " + target);
     }
     
     /**
-     * Load cache from JSON file if it exists and parameters match.
+     * Load cache from the binary cache file if it exists, matches the current configuration
+     * hash and passes its CRC check.
+     * @param path Cache file to read
      * @param shooterHeight_m Expected shooter height
-     * @return true if successfully loaded, false if file doesn't exist, params mismatch, or invalid
+     * @return true if successfully loaded, false if missing, stale, corrupt or unreadable
      */
-    private static boolean loadCacheFromFile(double shooterHeight_m) {
-        try {
-            File file = new File(CACHE_FILE);
-            if (!file.exists()) {
+    static boolean loadCacheFromFile(Path path, double shooterHeight_m) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long expectedBytes = CACHE_HEADER_BYTES + (long) CACHE_SIZE * (4 * Double.BYTES + 1);
+            if (channel.size() != expectedBytes) {
+                System.out.println("HubShooterTrajectoryCalc: Cache file size mismatch, rebuilding...");
                 return false;
             }
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedBytes)
+                                    .order(ByteOrder.LITTLE_ENDIAN);
             
-            // Read entire file
-            StringBuilder sb = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    sb.append(line).append("\n");
-                }
+            if (buf.getInt() != CACHE_MAGIC || buf.getInt() != CACHE_FORMAT_VERSION) {
+                System.out.println("HubShooterTrajectoryCalc: Cache format mismatch, rebuilding...");
+                return false;
             }
-            String content = sb.toString();
-            
-            // Verify configuration parameters match
-            double fileShooterHeight = parseJsonDouble(content, "\"shooterHeight_m\":");
-            double fileHubLipHeight = parseJsonDouble(content, "\"hubLipHeight_m\":");
-            double fileTargetHeight = parseJsonDouble(content, "\"targetHeight_m\":");
-            double fileTargetTolerance = parseJsonDouble(content, "\"targetTolerance_m\":");
-            double fileBallDiameter = parseJsonDouble(content, "\"ballDiameter_m\":");
-            int fileSize = (int) parseJsonDouble(content, "\"size\":");
-            
-            // Check if parameters match (with small tolerance for floating point)
-            if (Math.abs(fileShooterHeight - shooterHeight_m) > 0.001 ||
-                Math.abs(fileHubLipHeight - HUB_LIP_HEIGHT_M) > 0.001 ||
-                Math.abs(fileTargetHeight - TARGET_HEIGHT_M) > 0.001 ||
-                Math.abs(fileTargetTolerance - TARGET_TOLERANCE_M) > 0.001 ||
-                Math.abs(fileBallDiameter - BALL_DIAMETER_M) > 0.001 ||
-                fileSize != CACHE_SIZE) {
+            int fileHash = buf.getInt();
+            int fileSize = buf.getInt();
+            int fileCrc = buf.getInt();
+            buf.getInt();  // reserved
+            if (fileHash != configHash(shooterHeight_m) || fileSize != CACHE_SIZE) {
                 System.out.println("HubShooterTrajectoryCalc: Cache params mismatch, rebuilding...");
                 return false;
             }
             
-            // Parameters match - parse entries
-            cache = new CacheEntry[CACHE_SIZE];
-            cacheShooterHeight_m = shooterHeight_m;
-            
-            // Find entries array
-            int entriesStart = content.indexOf("\"entries\":");
-            if (entriesStart < 0) return false;
-            
-            int arrayStart = content.indexOf("[", entriesStart);
-            int arrayEnd = content.lastIndexOf("]");
-            if (arrayStart < 0 || arrayEnd < 0) return false;
-            
-            String entriesStr = content.substring(arrayStart + 1, arrayEnd);
-            
-            // Parse each entry
-            int idx = 0;
-            int pos = 0;
-            while (idx < CACHE_SIZE && pos < entriesStr.length()) {
-                int objStart = entriesStr.indexOf("{", pos);
-                if (objStart < 0) break;
-                int objEnd = entriesStr.indexOf("}", objStart);
-                if (objEnd < 0) break;
-                
-                String obj = entriesStr.substring(objStart + 1, objEnd);
-                
-                double d = parseJsonDouble(obj, "\"d\":");
-                double e = parseJsonDouble(obj, "\"e\":");
-                double r = parseJsonDouble(obj, "\"r\":");
-                double a = parseJsonDouble(obj, "\"a\":");
-                double p = parseJsonDouble(obj, "\"p\":");
-                boolean v = obj.contains("\"v\":true");
-                
-                cache[idx] = new CacheEntry(d, e, r, a, p, v);
-                idx++;
-                pos = objEnd + 1;
+            ByteBuffer payload = buf.slice().order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != fileCrc) {
+                System.err.println("Warning: Cache file CRC mismatch, rebuilding...");
+                return false;
             }
             
-            if (idx == CACHE_SIZE) {
-                cacheInitialized = true;
-                return true;
-            } else {
-                System.err.println("Warning: Cache file has wrong number of entries: " + idx);
-                return false;
+            DoubleBuffer doubles = payload.asDoubleBuffer();
+            double[] elevation = new double[CACHE_SIZE];
+            double[] speed = new double[CACHE_SIZE];
+            double[] airtime = new double[CACHE_SIZE];
+            double[] peak = new double[CACHE_SIZE];
+            boolean[] valid = new boolean[CACHE_SIZE];
+            doubles.get(elevation);
+            doubles.get(speed);
+            doubles.get(airtime);
+            doubles.get(peak);
+            payload.position(4 * CACHE_SIZE * Double.BYTES);
+            for (int i = 0; i < CACHE_SIZE; i++) {
+                valid[i] = payload.get() != 0;
             }
+            
+            cacheElevation_deg = elevation;
+            cacheSpeed_rps = speed;
+            cacheAirtime_s = airtime;
+            cachePeakHeight_m = peak;
+            cacheValid = valid;
+            cacheShooterHeight_m = shooterHeight_m;
+            cacheInitialized = true;
+            return true;
         } catch (Exception e) {
             System.err.println("Warning: Could not load cache file: " + e.getMessage());
             return false;
         }
     }
     
-    /** Helper to parse a double value from simple JSON */
-    private static double parseJsonDouble(String json, String key) {
-        int idx = json.indexOf(key);
-        if (idx < 0) return 0;
-        int start = idx + key.length();
-        // Skip whitespace after the colon
-        while (start < json.length() && Character.isWhitespace(json.charAt(start))) {
-            start++;
-        }
-        int end = start;
-        while (end < json.length() && (Character.isDigit(json.charAt(end)) || 
-               json.charAt(end) == '.' || json.charAt(end) == '-')) {
-            end++;
-        }
-        try {
-            return Double.parseDouble(json.substring(start, end));
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+    /**
+     * Hash of every constant that affects cache contents. Any change to hub geometry,
+     * ball physics or shot model, cache layout or integrator invalidates a stored cache.
+     * (Slip isn't included: the cache is solved at slip 1.0.)
+     */
+    private static int configHash(double shooterHeight_m) {
+        ShotModel model = shotModel;
+        ByteBuffer buf = ByteBuffer.allocate(18 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putDouble(shooterHeight_m);
+        buf.putDouble(HUB_LIP_HEIGHT_M);
+        buf.putDouble(HUB_OPENING_DIAMETER_M);
+        buf.putDouble(TARGET_HEIGHT_M);
+        buf.putDouble(TARGET_TOLERANCE_M);
+        buf.putDouble(BALL_DIAMETER_M);
+        buf.putDouble(BALL_MASS_KG);
+        buf.putDouble(model.dragCoeff);
+        buf.putDouble(model.dragSpeedSlope);
+        buf.putDouble(model.launchLiftCoeff);
+        buf.putDouble(AIR_DENSITY_KG_M3);
+        buf.putDouble(GRAVITY_MPS2);
+        buf.putDouble(LIP_FUDGE_M);
+        buf.putDouble(ROLLER_DIAMETER_M);
+        buf.putDouble(CACHE_MIN_DISTANCE_M);
+        buf.putDouble(CACHE_MAX_DISTANCE_M);
+        buf.putDouble(CACHE_SIZE);
+        buf.putDouble(CACHE_INTEGRATOR.ordinal());
+        buf.flip();
+        CRC32 crc = new CRC32();
+        crc.update(buf);
+        return (int) crc.getValue();
+    }
+    
+    /** Lowest distance covered by the cache (lookups clamp below this) */
+    public static double getCacheMinDistanceM() {
+        return CACHE_MIN_DISTANCE_M;
+    }
+    
+    /** Highest distance covered by the cache (lookups clamp above this) */
+    public static double getCacheMaxDistanceM() {
+        return CACHE_MAX_DISTANCE_M;
     }
     
     /** Check if cache is initialized */
@@ -374,15 +632,139 @@ public class HubShooterTrajectoryCalc {
         return cacheInitialized;
     }
     
+    /** Drop the cache so the next load or build starts clean (tests) */
+    static void clearCache() {
+        cacheInitialized = false;
+        cacheElevation_deg = null;
+        cacheSpeed_rps = null;
+        cacheAirtime_s = null;
+        cachePeakHeight_m = null;
+        cacheValid = null;
+    }
+    
+    // ========== SLIP ==========
+    
+    /**
+     * Overrides the shot model's slip for lookups, e.g. from the dashboard while tuning.
+     * Nothing is re-solved: callers divide the slip-free table speed by getSlipFactor().
+     * @param slipFactor Ball exit speed / roller surface speed, NaN or <= 0 to use the shot model's
+     */
+    public static void setSlipOverride(double slipFactor) {
+        slipOverride = (slipFactor > 0) ? slipFactor : Double.NaN;
+    }
+    
+    /**
+     * @return the slip lookups should apply: the override if set, otherwise the shot model's
+     */
+    public static double getSlipFactor() {
+        double slip = slipOverride;
+        return Double.isNaN(slip) ? shotModel.slipFactor : slip;
+    }
+    
+    /**
+     * Roller speed for a ball exit velocity on this shooter. Every table that stores exit
+     * velocity converts through here so they all agree on roller size.
+     * @param velocity_mps Ball exit velocity
+     * @param slipFactor Roller slip (1.0 = no slip)
+     */
+    static double exitVelocityToRps(double velocity_mps, double slipFactor) {
+        return velocity_mps / (Math.PI * ROLLER_DIAMETER_M * slipFactor);
+    }
+    
+    /**
+     * Validity-aware bilinear interpolation over a flat table stored row-major by y (rows of
+     * xCount entries), used by LobShotPlanner. Both inputs are clamped to
+     * the table. Invalid corners are dropped and their weight given to the valid neighbour on
+     * the same axis. Allocation-free.
+     * Fills out.elevation_deg, airtime_s and peakHeight_m; speed is returned in the table's
+     * own units so the caller applies its conversion.
+     * @return the interpolated speed value, or NaN if no usable corner surrounds the point
+     */
+    static double interpolateGrid(double[] elevation, double[] speed, double[] airtime, double[] peak,
+                                  boolean[] valid,
+                                  double x, double xMin, double xStep, int xCount,
+                                  double y, double yMin, double yStep, int yCount,
+                                  MutableShotSolution out) {
+        // X axis
+        double xPos = (x - xMin) / xStep;
+        if (xPos < 0) xPos = 0;
+        if (xPos > xCount - 1) xPos = xCount - 1;
+        int d = (int) xPos;
+        if (d >= xCount - 1) d = xCount - 2;
+        double td = xPos - d;
+        
+        // Y axis
+        double yPos = (y - yMin) / yStep;
+        if (yPos < 0) yPos = 0;
+        if (yPos > yCount - 1) yPos = yCount - 1;
+        int h = (int) yPos;
+        if (h >= yCount - 1) h = yCount - 2;
+        double th = yPos - h;
+        
+        int i00 = h * xCount + d;
+        int i01 = i00 + 1;
+        int i10 = i00 + xCount;
+        int i11 = i10 + 1;
+        
+        // Per-row x weights (t = weight of the +1 column), NaN if the row is unusable
+        double tLow = axisWeight(valid[i00], valid[i01], td);
+        double tHigh = axisWeight(valid[i10], valid[i11], td);
+        double tRow = axisWeight(!Double.isNaN(tLow), !Double.isNaN(tHigh), th);
+        if (Double.isNaN(tRow)) return Double.NaN;
+        if (Double.isNaN(tLow)) tLow = 0;
+        if (Double.isNaN(tHigh)) tHigh = 0;
+        
+        double w00 = (1 - tRow) * (1 - tLow);
+        double w01 = (1 - tRow) * tLow;
+        double w10 = tRow * (1 - tHigh);
+        double w11 = tRow * tHigh;
+        
+        out.elevation_deg = w00 * elevation[i00] + w01 * elevation[i01] + w10 * elevation[i10] + w11 * elevation[i11];
+        out.airtime_s = w00 * airtime[i00] + w01 * airtime[i01] + w10 * airtime[i10] + w11 * airtime[i11];
+        out.peakHeight_m = w00 * peak[i00] + w01 * peak[i01] + w10 * peak[i10] + w11 * peak[i11];
+        return w00 * speed[i00] + w01 * speed[i01] + w10 * speed[i10] + w11 * speed[i11];
+    }
+    
+    /**
+     * Interpolation weight of the upper sample along one axis given endpoint validity.
+     * @return t if both valid, 0 or 1 if only one is valid, NaN if neither
+     */
+    private static double axisWeight(boolean lowValid, boolean highValid, double t) {
+        if (lowValid && highValid) return t;
+        if (lowValid) return 0;
+        if (highValid) return 1;
+        return Double.NaN;
+    }
+    
     /**
      * Lookup trajectory from cache with linear interpolation.
+     * Allocates a new CacheEntry; hot loops should use {@link #lookupInto} instead.
      * @param distance_m Distance to hub center
      * @return CacheEntry with trajectory parameters (check .valid)
      */
     public static CacheEntry lookupCache(double distance_m) {
+        MutableShotSolution out = new MutableShotSolution();
+        lookupInto(distance_m, out);
+        return new CacheEntry(out.distance_m, out.elevation_deg, out.speed_rps,
+                              out.airtime_s, out.peakHeight_m, out.valid);
+    }
+    
+    /**
+     * Lookup trajectory from cache with linear interpolation into a caller-owned result.
+     * Allocation-free; safe to call every loop.
+     * @param distance_m Distance to hub center (clamped to cache bounds)
+     * @param out Result to overwrite (check .valid)
+     * @return out.valid
+     */
+    public static boolean lookupInto(double distance_m, MutableShotSolution out) {
         if (!cacheInitialized) {
-            System.err.println("ERROR: Cache not initialized! Call initializeCache() first.");
-            return new CacheEntry(distance_m, 0, 0, 0, 0, false);
+            if (!warnedUninitialized) {
+                warnedUninitialized = true;
+                System.err.println("ERROR: Cache not initialized! Call initializeCache() first.");
+            }
+            out.distance_m = distance_m;
+            out.valid = false;
+            return false;
         }
         
         // Clamp to cache bounds
@@ -393,26 +775,24 @@ public class HubShooterTrajectoryCalc {
         int idx = (int)((distance_m - CACHE_MIN_DISTANCE_M) / CACHE_STEP_M);
         if (idx >= CACHE_SIZE - 1) idx = CACHE_SIZE - 2;
         
-        CacheEntry e1 = cache[idx];
-        CacheEntry e2 = cache[idx + 1];
-        
         // If either is invalid, return the valid one or invalid
-        if (!e1.valid && !e2.valid) {
-            return new CacheEntry(distance_m, 0, 0, 0, 0, false);
+        boolean v1 = cacheValid[idx];
+        boolean v2 = cacheValid[idx + 1];
+        out.distance_m = distance_m;
+        if (!v1 && !v2) {
+            out.valid = false;
+            return false;
         }
-        if (!e1.valid) return e2;
-        if (!e2.valid) return e1;
         
-        // Linear interpolation
-        double t = (distance_m - e1.distance_m) / CACHE_STEP_M;
-        return new CacheEntry(
-            distance_m,
-            e1.elevation_deg + t * (e2.elevation_deg - e1.elevation_deg),
-            e1.speed_rps + t * (e2.speed_rps - e1.speed_rps),
-            e1.airtime_s + t * (e2.airtime_s - e1.airtime_s),
-            e1.peakHeight_m + t * (e2.peakHeight_m - e1.peakHeight_m),
-            true
-        );
+        // Linear interpolation (snap to the valid neighbour if only one is usable)
+        double t = v1 && v2 ? (distance_m - (CACHE_MIN_DISTANCE_M + idx * CACHE_STEP_M)) / CACHE_STEP_M
+                            : (v1 ? 0 : 1);
+        out.elevation_deg = cacheElevation_deg[idx] + t * (cacheElevation_deg[idx + 1] - cacheElevation_deg[idx]);
+        out.speed_rps = cacheSpeed_rps[idx] + t * (cacheSpeed_rps[idx + 1] - cacheSpeed_rps[idx]);
+        out.airtime_s = cacheAirtime_s[idx] + t * (cacheAirtime_s[idx + 1] - cacheAirtime_s[idx]);
+        out.peakHeight_m = cachePeakHeight_m[idx] + t * (cachePeakHeight_m[idx + 1] - cachePeakHeight_m[idx]);
+        out.valid = true;
+        return true;
     }
     
     // ========== MAIN CALCULATION ==========
@@ -429,6 +809,20 @@ public class HubShooterTrajectoryCalc {
      * @return true if valid solution found
      */
     public boolean run() {
+        if (solverMode == SolverMode.NEWTON && runNewton()) {
+            return true;
+        }
+        return runSweep();
+    }
+    
+    /**
+     * Grid search: 0.5 deg angle sweep, 0.2 m/s speed sweep per angle.
+     */
+    private boolean runSweep() {
+        if (useBatch()) {
+            return runSweepBatch();
+        }
+        
         // Reset outputs
         elevation_deg = 0.0;
         shooterSpeed_rps = 0.0;
@@ -500,6 +894,10 @@ public class HubShooterTrajectoryCalc {
      * @return true if valid solution found
      */
     public boolean runWithHint(double hintAngle_deg, double hintSpeed_mps) {
+        if (useBatch()) {
+            return runWithHintBatch(hintAngle_deg, hintSpeed_mps);
+        }
+        
         // Reset outputs
         elevation_deg = 0.0;
         shooterSpeed_rps = 0.0;
@@ -564,8 +962,322 @@ public class HubShooterTrajectoryCalc {
         return run();
     }
     
+    // ========== BATCH SEARCHES ==========
+    
+    private boolean useBatch() {
+        return batchSimulation;
+    }
+    
+    /**
+     * Batch form of runSweep: every angle is a lane and the speed grid is stepped for all of them
+     * at once. RPS only grows with speed, so the first speed step where any angle is valid holds
+     * the lowest-RPS solution (lowest angle on ties), the same answer as the per-angle sweep
+     * without simulating the speeds above it.
+     */
+    private boolean runSweepBatch() {
+        elevation_deg = 0.0;
+        shooterSpeed_rps = 0.0;
+        peakHeight_m = 0.0;
+        airtime_s = 0.0;
+        landingX_m = 0.0;
+        
+        int n = 0;
+        for (double angle = minElevation_deg; angle <= maxElevation_deg; angle += 0.5) {
+            ensureLanes(n + 1);
+            laneAngle_deg[n++] = angle;
+        }
+        configureEngine();
+        
+        for (double speed = 3.0; speed <= 25.0; speed += 0.2) {
+            for (int i = 0; i < n; i++) {
+                engine.setLane(i, speed, laneAngle_deg[i]);
+            }
+            engine.simulate(n);
+            
+            for (int i = 0; i < n; i++) {
+                if (Math.abs(engine.getLandingXM(i) - hubDistance_m) <= TARGET_TOLERANCE_M && laneEntersHub(i)) {
+                    setOutputsFromLane(i, laneAngle_deg[i], speed);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Batch form of runWithHint: the per-angle speed bisections run side by side, one engine
+     * batch per bisection step, with converged angles dropped from the batch.
+     */
+    private boolean runWithHintBatch(double hintAngle_deg, double hintSpeed_mps) {
+        elevation_deg = 0.0;
+        shooterSpeed_rps = 0.0;
+        peakHeight_m = 0.0;
+        airtime_s = 0.0;
+        landingX_m = 0.0;
+        
+        double searchRadius = 5.0;
+        double angleStart = Math.max(minElevation_deg, hintAngle_deg - searchRadius);
+        double angleEnd = Math.min(maxElevation_deg, hintAngle_deg + searchRadius);
+        
+        int n = 0;
+        for (double angle = angleStart; angle <= angleEnd; angle += 0.25) {
+            ensureLanes(n + 1);
+            laneAngle_deg[n] = angle;
+            laneMin_mps[n] = Math.max(3.0, hintSpeed_mps - 3.0);
+            laneMax_mps[n] = Math.min(25.0, hintSpeed_mps + 3.0);
+            laneSpeed_mps[n] = -1;
+            n++;
+        }
+        configureEngine();
+        
+        // Bisection near the hint (+-3 m/s), then the full range for angles that missed
+        bisectLanes(n, 30);
+        for (int i = 0; i < n; i++) {
+            if (laneSpeed_mps[i] < 0) {
+                laneMin_mps[i] = 3.0;
+                laneMax_mps[i] = 25.0;
+            }
+        }
+        bisectLanes(n, 40);
+        
+        // Verify every solved angle in one batch, keep the lowest RPS (lowest angle on ties)
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (laneSpeed_mps[i] > 0) {
+                laneSlots[count] = i;
+                engine.setLane(count++, laneSpeed_mps[i], laneAngle_deg[i]);
+            }
+        }
+        engine.simulate(count);
+        
+        int bestSlot = -1;
+        for (int slot = 0; slot < count; slot++) {
+            boolean valid = engine.getLandingXM(slot) > 0 && engine.isDescendingAtUpper(slot)
+                            && engine.getXAtUpperLevelM(slot) > 0;
+            boolean hitsCenter = Math.abs(engine.getLandingXM(slot) - hubDistance_m) < TARGET_TOLERANCE_M;
+            if (valid && hitsCenter && laneEntersHub(slot)
+                    && (bestSlot < 0 || laneSpeed_mps[laneSlots[slot]] < laneSpeed_mps[laneSlots[bestSlot]])) {
+                bestSlot = slot;
+            }
+        }
+        
+        if (bestSlot >= 0) {
+            int lane = laneSlots[bestSlot];
+            setOutputsFromLane(bestSlot, laneAngle_deg[lane], laneSpeed_mps[lane]);
+            return true;
+        }
+        
+        // Fall back to full search
+        return run();
+    }
+    
+    /**
+     * Bisects speed for every unsolved lane (laneSpeed_mps < 0) within its bracket, the batch
+     * equivalent of findSpeedForTarget: aim the target-height crossing at the hub center
+     * within 1cm, then accept the bracket midpoint if it lands within tolerance.
+     */
+    private void bisectLanes(int n, int iterations) {
+        for (int iter = 0; iter <= iterations; iter++) {
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (laneSpeed_mps[i] < 0) {
+                    laneSlots[count] = i;
+                    engine.setLane(count++, (laneMin_mps[i] + laneMax_mps[i]) / 2, laneAngle_deg[i]);
+                }
+            }
+            if (count == 0) return;
+            engine.simulate(count);
+            
+            boolean finalCheck = iter == iterations;
+            for (int slot = 0; slot < count; slot++) {
+                int lane = laneSlots[slot];
+                double vMid = (laneMin_mps[lane] + laneMax_mps[lane]) / 2;
+                double landX = engine.getLandingXM(slot);
+                
+                if (finalCheck) {
+                    if (landX > 0 && Math.abs(landX - hubDistance_m) < TARGET_TOLERANCE_M) {
+                        laneSpeed_mps[lane] = vMid;
+                    }
+                } else if (landX < 0 || landX < hubDistance_m - 0.01) {
+                    laneMin_mps[lane] = vMid;
+                } else if (landX > hubDistance_m + 0.01) {
+                    laneMax_mps[lane] = vMid;
+                } else {
+                    laneSpeed_mps[lane] = vMid;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Lip clearance, descending through the lip, and inside the opening for an engine slot.
+     */
+    private boolean laneEntersHub(int slot) {
+        double nearEdgeX_m = hubDistance_m - HUB_OPENING_RADIUS_M;
+        double xAtLip = engine.getXAtUpperLevelM(slot);
+        return engine.getHeightAtPlaneM(slot) >= LIP_CLEARANCE_HEIGHT_M
+               && engine.isDescendingAtUpper(slot)
+               && xAtLip >= nearEdgeX_m && xAtLip <= (hubDistance_m + HUB_OPENING_RADIUS_M);
+    }
+    
+    private void setOutputsFromLane(int slot, double angle_deg, double speed_mps) {
+        this.elevation_deg = angle_deg;
+        this.shooterSpeed_rps = velocityToRps(speed_mps);
+        this.peakHeight_m = engine.getPeakHeightM(slot);
+        this.airtime_s = engine.getLandingTimeS(slot);
+        this.landingX_m = engine.getLandingXM(slot);
+    }
+    
+    /**
+     * Points the engine at this calculator's hub: near-edge plane, lip and target levels.
+     */
+    private void configureEngine() {
+        engine.setIntegrator(integrator);
+        engine.setShotModel(shotModel);
+        engine.setLaunchHeightM(shooterHeight_m);
+        engine.setEvents(hubDistance_m - HUB_OPENING_RADIUS_M, HUB_LIP_HEIGHT_M, TARGET_HEIGHT_M);
+        engine.setLimits(0.0, hubDistance_m + 2.0, MAX_SIM_TIME_S);
+    }
+    
+    private void ensureLanes(int needed) {
+        if (needed <= laneAngle_deg.length) return;
+        int size = Math.max(needed, laneAngle_deg.length * 2);
+        laneAngle_deg = Arrays.copyOf(laneAngle_deg, size);
+        laneMin_mps = Arrays.copyOf(laneMin_mps, size);
+        laneMax_mps = Arrays.copyOf(laneMax_mps, size);
+        laneSpeed_mps = Arrays.copyOf(laneSpeed_mps, size);
+        laneSlots = Arrays.copyOf(laneSlots, size);
+    }
+    
+    /**
+     * Newton solve for the lowest-speed trajectory, typically in 10-20 simulations.
+     * 
+     * The minimum-speed shot normally just grazes the lip clearance height at the near edge,
+     * so (angle, speed) is solved from two equations:
+     *   landingX(angle, speed)       = hub distance
+     *   heightAtNearEdge(angle, speed) = lip clearance height
+     * seeded from the drag-free parabola through both points, with a finite-difference Jacobian.
+     * If a steeper angle needs less speed the lip isn't the active constraint; the interior
+     * speed minimum along the landing curve is then found with parabolic steps on speed(angle).
+     * 
+     * @return true if a valid solution was found (outputs set), false to fall back to the sweep
+     */
+    private boolean runNewton() {
+        elevation_deg = 0.0;
+        shooterSpeed_rps = 0.0;
+        peakHeight_m = 0.0;
+        airtime_s = 0.0;
+        landingX_m = 0.0;
+        
+        double nearEdgeX = hubDistance_m - HUB_OPENING_RADIUS_M;
+        double clearY = LIP_CLEARANCE_HEIGHT_M + NEWTON_LIP_MARGIN_M;
+        
+        // Drag-free seed: y = x*tan(a) - g*x^2 / (2 v^2 cos^2(a)) through both points
+        double x1 = nearEdgeX, y1 = clearY - shooterHeight_m;
+        double x2 = hubDistance_m, y2 = TARGET_HEIGHT_M - shooterHeight_m;
+        if (x1 <= 0) return false;
+        double b = (y1 / x1 - y2 / x2) / (x2 - x1);
+        if (!(b > 0)) return false;
+        double tanA = y1 / x1 + b * x1;
+        double angle = Math.toDegrees(Math.atan(tanA));
+        double speed = Math.sqrt(GRAVITY_MPS2 * (1 + tanA * tanA) / (2 * b));
+        
+        // Drag makes the seed land short, possibly before the near edge where the
+        // clearance residual is undefined; fix the landing first along the seed angle
+        speed = findSpeedForAngleSecant(angle, speed * 1.05);
+        if (speed < 0) return false;
+        
+        boolean converged = false;
+        for (int iter = 0; iter < NEWTON_MAX_ITERATIONS; iter++) {
+            TrajectoryResult r = simulateFullTrajectory(speed, angle);
+            if (r.landingX_m < 0 || r.heightAtNearEdge_m < 0) return false;
+            double f1 = r.landingX_m - hubDistance_m;
+            double f2 = r.heightAtNearEdge_m - clearY;
+            if (Math.abs(f1) < NEWTON_TOLERANCE_M && Math.abs(f2) < NEWTON_TOLERANCE_M) {
+                converged = true;
+                break;
+            }
+            
+            TrajectoryResult rA = simulateFullTrajectory(speed, angle + NEWTON_ANGLE_DELTA_DEG);
+            TrajectoryResult rV = simulateFullTrajectory(speed + NEWTON_SPEED_DELTA_MPS, angle);
+            if (rA.landingX_m < 0 || rV.landingX_m < 0) return false;
+            double j11 = (rA.landingX_m - r.landingX_m) / NEWTON_ANGLE_DELTA_DEG;
+            double j12 = (rV.landingX_m - r.landingX_m) / NEWTON_SPEED_DELTA_MPS;
+            double j21 = (rA.heightAtNearEdge_m - r.heightAtNearEdge_m) / NEWTON_ANGLE_DELTA_DEG;
+            double j22 = (rV.heightAtNearEdge_m - r.heightAtNearEdge_m) / NEWTON_SPEED_DELTA_MPS;
+            double det = j11 * j22 - j12 * j21;
+            if (Math.abs(det) < 1e-12) return false;
+            
+            double dAngle = -(j22 * f1 - j12 * f2) / det;
+            double dSpeed = -(-j21 * f1 + j11 * f2) / det;
+            angle += Math.max(-NEWTON_MAX_ANGLE_STEP_DEG, Math.min(NEWTON_MAX_ANGLE_STEP_DEG, dAngle));
+            speed += Math.max(-NEWTON_MAX_SPEED_STEP_MPS, Math.min(NEWTON_MAX_SPEED_STEP_MPS, dSpeed));
+        }
+        if (!converged) return false;
+        
+        // Lip active? A steeper shot must need more speed, otherwise the optimum is interior
+        double probeSpeed = findSpeedForAngleSecant(angle + NEWTON_PROBE_DEG, speed);
+        if (probeSpeed > 0 && probeSpeed < speed) {
+            double lipAngle = angle;
+            for (int iter = 0; iter < 4; iter++) {
+                double h = NEWTON_PROBE_DEG;
+                double vLow = findSpeedForAngleSecant(angle - h, speed);
+                double vHigh = findSpeedForAngleSecant(angle + h, speed);
+                if (vLow < 0 || vHigh < 0) break;
+                double curvature = vLow - 2 * speed + vHigh;
+                double step = (curvature > 0) ? h * (vLow - vHigh) / (2 * curvature) : 2 * h;
+                step = Math.max(-2 * h, Math.min(4 * h, step));
+                double next = Math.max(lipAngle, angle + step);
+                double nextSpeed = findSpeedForAngleSecant(next, speed);
+                if (nextSpeed < 0 || nextSpeed >= speed) break;
+                angle = next;
+                speed = nextSpeed;
+            }
+        }
+        
+        if (angle < minElevation_deg || angle > maxElevation_deg) return false;
+        
+        TrajectoryResult traj = simulateFullTrajectory(speed, angle);
+        boolean hitsCenter = traj.landingX_m > 0 && Math.abs(traj.landingX_m - hubDistance_m) < TARGET_TOLERANCE_M;
+        boolean clearsLip = traj.heightAtNearEdge_m >= LIP_CLEARANCE_HEIGHT_M;
+        boolean insideOpening = traj.xAtLipHeight_m >= nearEdgeX &&
+                                traj.xAtLipHeight_m <= (hubDistance_m + HUB_OPENING_RADIUS_M);
+        if (!(hitsCenter && clearsLip && traj.isDescendingAtLip && insideOpening)) return false;
+        
+        this.elevation_deg = angle;
+        this.shooterSpeed_rps = velocityToRps(speed);
+        this.peakHeight_m = traj.peakHeight_m;
+        this.airtime_s = traj.airtime_s;
+        this.landingX_m = traj.landingX_m;
+        return true;
+    }
+    
     // ========== PRIVATE METHODS ==========
     
+    /**
+     * Secant solve for the speed that lands at the hub center for a fixed angle.
+     * @return speed in m/s, or -1 if it didn't converge
+     */
+    private double findSpeedForAngleSecant(double angle_deg, double guessSpeed_mps) {
+        double v0 = guessSpeed_mps;
+        double v1 = guessSpeed_mps * 1.01;
+        double f0 = simulateFullTrajectory(v0, angle_deg).landingX_m;
+        if (f0 < 0) return -1;
+        f0 -= hubDistance_m;
+        for (int iter = 0; iter < 8; iter++) {
+            double f1 = simulateFullTrajectory(v1, angle_deg).landingX_m;
+            if (f1 < 0) return -1;
+            f1 -= hubDistance_m;
+            if (Math.abs(f1) < NEWTON_TOLERANCE_M) return v1;
+            if (f1 == f0) return -1;
+            double v2 = v1 - f1 * (v1 - v0) / (f1 - f0);
+            v0 = v1;
+            f0 = f1;
+            v1 = Math.max(1.0, v2);
+        }
+        return -1;
+    }
+    
     /**
      * Find speed with hint - binary search near hint for efficiency.
      */
@@ -639,100 +1351,23 @@ public class HubShooterTrajectoryCalc {
     }
     
     /**
-     * Simulate full trajectory with air drag.
-     * Tracks:
+     * Simulate one trajectory with air drag using the selected integrator, as a 1-lane
+     * engine batch. Tracks:
      *   - Height at near edge of opening (for lip clearance)
      *   - X position when crossing lip height (to verify inside opening)
      *   - Landing position at funnel bottom (the target)
      */
     private TrajectoryResult simulateFullTrajectory(double v0_mps, double angle_deg) {
-        double angle_rad = Math.toRadians(angle_deg);
-        double vx = v0_mps * Math.cos(angle_rad);
-        double vy = v0_mps * Math.sin(angle_rad);
-        
-        double x = 0;
-        double y = shooterHeight_m;
-        double peakHeight = y;
-        boolean passedPeak = false;
-        
-        // Near edge position for lip clearance check
-        double nearEdgeX = hubDistance_m - HUB_OPENING_RADIUS_M;
-        double heightAtNearEdge = -1;
-        
-        // Track crossing of LIP height while descending
-        double xAtLipHeight = -1;
-        boolean isDescendingAtLip = false;
-        
-        // Track landing at FUNNEL BOTTOM
-        double landingX = -1;
-        double landingTime = 0;
-        
-        double prevX = x;
-        double prevY = y;
-        
-        double t = 0;
-        while (t < MAX_SIM_TIME_S && y > 0) {
-            // Air drag
-            double v = Math.sqrt(vx * vx + vy * vy);
-            double dragForce = 0.5 * AIR_DENSITY_KG_M3 * v * v * DRAG_COEFF * BALL_AREA_M2;
-            double ax = -dragForce / BALL_MASS_KG * (vx / v);
-            double ay = -dragForce / BALL_MASS_KG * (vy / v) - GRAVITY_MPS2;
-            
-            // Update velocity
-            vx += ax * DT_S;
-            vy += ay * DT_S;
-            
-            // Update position
-            prevX = x;
-            prevY = y;
-            x += vx * DT_S;
-            y += vy * DT_S;
-            t += DT_S;
-            
-            // Track peak
-            if (y > peakHeight) {
-                peakHeight = y;
-            }
-            if (vy < 0 && !passedPeak) {
-                passedPeak = true;
-            }
-            
-            // Check height at near edge of opening
-            if (heightAtNearEdge < 0 && prevX < nearEdgeX && x >= nearEdgeX) {
-                double frac = (nearEdgeX - prevX) / (x - prevX);
-                heightAtNearEdge = prevY + frac * (y - prevY);
-            }
-            
-            // Check crossing of LIP height while DESCENDING
-            if (passedPeak && xAtLipHeight < 0 && prevY > HUB_LIP_HEIGHT_M && y <= HUB_LIP_HEIGHT_M) {
-                double frac = (HUB_LIP_HEIGHT_M - prevY) / (y - prevY);
-                xAtLipHeight = prevX + frac * (x - prevX);
-                isDescendingAtLip = (vy < 0);
-            }
-            
-            // Check crossing at TARGET height (60")
-            if (passedPeak && landingX < 0 && prevY > TARGET_HEIGHT_M && y <= TARGET_HEIGHT_M) {
-                double frac = (TARGET_HEIGHT_M - prevY) / (y - prevY);
-                landingX = prevX + frac * (x - prevX);
-                landingTime = t;
-            }
-            
-            // Stop if we've gone past the hub
-            if (x > hubDistance_m + 2.0) {
-                break;
-            }
-        }
+        configureEngine();
+        engine.setLane(0, v0_mps, angle_deg);
+        engine.simulate(1);
         
-        // If we never crossed near edge, use current height
-        if (heightAtNearEdge < 0 && x >= nearEdgeX) {
-            heightAtNearEdge = y;
-        }
-        
-        // Valid if ball lands at funnel bottom and was descending at lip
+        double landingX = engine.getLandingXM(0);
+        double xAtLipHeight = engine.getXAtUpperLevelM(0);
+        boolean isDescendingAtLip = engine.isDescendingAtUpper(0);
         boolean valid = (landingX > 0) && isDescendingAtLip && (xAtLipHeight > 0);
-        
-        return new TrajectoryResult(valid, heightAtNearEdge, xAtLipHeight, isDescendingAtLip,
-                                    landingX, peakHeight, landingTime);
+        return new TrajectoryResult(valid, engine.getHeightAtPlaneM(0), xAtLipHeight, isDescendingAtLip,
+                                    landingX, engine.getPeakHeightM(0), engine.getLandingTimeS(0));
     }
     
     private double velocityToRps(double velocity_mps) {
@@ -766,9 +1401,31 @@ public class HubShooterTrajectoryCalc {
     // ========== MAIN ==========
     
     public static void main(String[] args) {
+        if ((args.length == 2 || args.length == 4) && args[0].equals("--generate")) {
+            if (args.length == 4 && args[2].equals("--model")) {
+                setShotModel(ShotModel.loadOrDefault(Paths.get(args[3])));
+                System.out.println("HubShooterTrajectoryCalc: Shot model " + shotModel);
+            }
+            generateCacheFile(Paths.get(args[1]));
+            return;
+        }
         Test();
     }
     
+    /**
+     * Build the default cache and write it to the given path. Used by the
+     * generateTrajectoryCache Gradle task so the robot never has to solve at boot.
+     */
+    public static void generateCacheFile(Path target) {
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            System.err.println("Warning: Could not create cache directory: " + e.getMessage());
+        }
+        buildCache(0.533);
+        saveCacheToFile(target);
+    }
+    
     // ========== TEST ==========
     
     public static void Test() {
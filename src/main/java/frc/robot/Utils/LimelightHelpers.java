@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -748,6 +749,102 @@ public class LimelightHelpers {
         return new PoseEstimate(pose, adjustedTimestamp, latency, tagCount, tagSpan, tagDist, tagArea, rawFiducials, isMegaTag2);
     }
 
+    /**
+     * Reusable decode target for readBotPoseEstimate. Keep one per camera and entry; the
+     * NetworkTables entry is bound on first read, and the estimate and its RawFiducials are
+     * overwritten by every read that finds a new frame.
+     */
+    public static class PoseEstimateBuffer {
+        private static final int MAX_FIDUCIALS = 16;
+
+        public final PoseEstimate estimate = new PoseEstimate();
+        private final RawFiducial[][] fiducialViews = new RawFiducial[MAX_FIDUCIALS + 1][];
+        private DoubleArrayEntry entry;
+        private long lastChange = 0;
+
+        public PoseEstimateBuffer() {
+            // views[n] holds the first n pooled fiducials, so rawFiducials.length is still the tag count
+            RawFiducial[] pool = new RawFiducial[MAX_FIDUCIALS];
+            for (int i = 0; i < MAX_FIDUCIALS; i++) {
+                pool[i] = new RawFiducial(0, 0, 0, 0, 0, 0, 0);
+            }
+            for (int n = 0; n <= MAX_FIDUCIALS; n++) {
+                fiducialViews[n] = Arrays.copyOf(pool, n);
+            }
+        }
+
+        private RawFiducial[] fiducials(int count) {
+            // More tags than the pool is rare enough to allocate for
+            return (count <= MAX_FIDUCIALS) ? fiducialViews[count] : new RawFiducial[count];
+        }
+    }
+
+    /**
+     * Decodes the latest pose estimate into a reused buffer, and only if it changed since the
+     * last read with that buffer. The entry is looked up on the first read and cached in the
+     * buffer, so later change checks allocate nothing. A new frame costs
+     * the NetworkTables array read and one Pose2d; PoseEstimate and RawFiducials are reused.
+     *
+     * @param limelightName Name of the Limelight camera
+     * @param entryName     NetworkTables entry holding the pose data
+     * @param isMegaTag2    Whether the entry is a MegaTag2 solve
+     * @param buffer        Per-camera buffer to decode into
+     * @return buffer.estimate if a new frame was decoded, null if nothing new or no data
+     */
+    public static PoseEstimate readBotPoseEstimate(String limelightName, String entryName, boolean isMegaTag2,
+            PoseEstimateBuffer buffer) {
+        DoubleArrayEntry poseEntry = buffer.entry;
+        if (poseEntry == null) {
+            poseEntry = buffer.entry = LimelightHelpers.getLimelightDoubleArrayEntry(limelightName, entryName);
+        }
+        long lastChange = poseEntry.getLastChange();
+        if (lastChange == buffer.lastChange) {
+            return null;
+        }
+        buffer.lastChange = lastChange;
+
+        TimestampedDoubleArray tsValue = poseEntry.getAtomic();
+        double[] poseArray = tsValue.value;
+        if (poseArray.length == 0) {
+            return null;
+        }
+
+        PoseEstimate estimate = buffer.estimate;
+        estimate.pose = toPose2D(poseArray);
+        estimate.latency = extractArrayEntry(poseArray, 6);
+        estimate.tagCount = (int)extractArrayEntry(poseArray, 7);
+        estimate.tagSpan = extractArrayEntry(poseArray, 8);
+        estimate.avgTagDist = extractArrayEntry(poseArray, 9);
+        estimate.avgTagArea = extractArrayEntry(poseArray, 10);
+        estimate.timestampSeconds = (tsValue.timestamp / 1000000.0) - (estimate.latency / 1000.0);
+        estimate.isMegaTag2 = isMegaTag2;
+
+        int valsPerFiducial = 7;
+        int tagCount = estimate.tagCount;
+        if (tagCount < 0 || poseArray.length != 11 + valsPerFiducial * tagCount) {
+            // Same as getBotPoseEstimate: no fiducials when the array doesn't match the count
+            estimate.rawFiducials = buffer.fiducials(0);
+            return estimate;
+        }
+        RawFiducial[] rawFiducials = buffer.fiducials(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            int baseIndex = 11 + (i * valsPerFiducial);
+            RawFiducial rawF = rawFiducials[i];
+            if (rawF == null) {
+                rawF = rawFiducials[i] = new RawFiducial(0, 0, 0, 0, 0, 0, 0);
+            }
+            rawF.id = (int)poseArray[baseIndex];
+            rawF.txnc = poseArray[baseIndex + 1];
+            rawF.tync = poseArray[baseIndex + 2];
+            rawF.ta = poseArray[baseIndex + 3];
+            rawF.distToCamera = poseArray[baseIndex + 4];
+            rawF.distToRobot = poseArray[baseIndex + 5];
+            rawF.ambiguity = poseArray[baseIndex + 6];
+        }
+        estimate.rawFiducials = rawFiducials;
+        return estimate;
+    }
+
     /**
      * Gets the latest raw fiducial/AprilTag detection results from NetworkTables.
      * 
@@ -1284,6 +1381,19 @@ public class LimelightHelpers {
         return getBotPoseEstimate(limelightName, "botpose_orb_wpiblue", true);
     }
 
+    /**
+     * Like getBotPoseEstimate_wpiBlue_MegaTag2, decoded into a reused buffer and only when
+     * there's a new frame (see readBotPoseEstimate).
+     * Make sure you are calling setRobotOrientation() before calling this method.
+     * 
+     * @param limelightName
+     * @param buffer per-camera buffer
+     * @return the decoded estimate (owned by the buffer), or null if nothing new
+     */
+    public static PoseEstimate readBotPoseEstimate_wpiBlue_MegaTag2(String limelightName, PoseEstimateBuffer buffer) {
+        return readBotPoseEstimate(limelightName, "botpose_orb_wpiblue", true, buffer);
+    }
+
     /**
      * Gets the Pose2d for easy use with Odometry vision pose estimator
      * (addVisionMeasurement)
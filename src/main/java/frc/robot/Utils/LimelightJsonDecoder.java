@@ -0,0 +1,234 @@
+package frc.robot.Utils;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * LimelightJsonDecoder - Streaming decode of the Limelight JSON dump into flat buffers.
+ *
+ * LimelightHelpers.getLatestResults binds the whole dump into a LimelightResults tree:
+ * every retro, barcode, classifier and detector target becomes objects and arrays we
+ * never read. This walks the same JSON with a Jackson JsonParser and keeps only what we
+ * use: validity, latencies and timestamps, the three botposes, the botpose tag stats and
+ * each fiducial's ID and distance. Everything lands in primitive fields and arrays of a
+ * reused Results, and every other field is skipped without being built.
+ *
+ * Opt-in; nothing else calls it. Fast enough to run on every camera frame for debugging
+ * and logging. A Results is overwritten by each decode, so keep one per camera per thread.
+ *
+ * Usage:
+ *   LimelightJsonDecoder.Results results = new LimelightJsonDecoder.Results();   // once
+ *   if (LimelightJsonDecoder.decode("limelight-front", results)) {
+ *       for (int i = 0; i < results.fiducialCount; i++) {
+ *           log(results.fiducialIds[i], results.fiducialDist_m[i]);
+ *       }
+ *   }
+ */
+public class LimelightJsonDecoder {
+
+    // ========== CONSTANTS ==========
+    public static final int MAX_FIDUCIALS = 32;        // Extra tags past this are counted but not stored
+
+    private static final JsonFactory factory = new JsonFactory();   // Thread-safe, parsers are not
+
+    /** Flat decode target, overwritten by each decode */
+    public static class Results {
+        public boolean valid;
+        public String error;                          // null when the decode succeeded
+
+        public double latencyPipeline_ms;             // "tl"
+        public double latencyCapture_ms;              // "cl"
+        public double latencyParse_ms;                // Time spent in decode
+        public double timestampPublish_s;             // "ts", Limelight clock
+        public double timestampRioCapture_s;          // "ts_rio", FPGA clock
+
+        // [x, y, z, roll, pitch, yaw], meters and degrees; has* false when absent
+        public final double[] botpose = new double[6];
+        public final double[] botposeWpiBlue = new double[6];
+        public final double[] botposeWpiRed = new double[6];
+        public boolean hasBotpose;
+        public boolean hasBotposeWpiBlue;
+        public boolean hasBotposeWpiRed;
+        public int botposeTagCount;
+        public double botposeAvgDist_m;
+
+        public int fiducialCount;                     // Tags seen, may exceed MAX_FIDUCIALS
+        public final int[] fiducialIds = new int[MAX_FIDUCIALS];
+        public final double[] fiducialDist_m = new double[MAX_FIDUCIALS];   // Target to robot, NaN if not sent
+
+        private final double[] scratch = new double[6];
+
+        private void clear() {
+            valid = false;
+            error = null;
+            latencyPipeline_ms = 0.0;
+            latencyCapture_ms = 0.0;
+            timestampPublish_s = 0.0;
+            timestampRioCapture_s = 0.0;
+            hasBotpose = false;
+            hasBotposeWpiBlue = false;
+            hasBotposeWpiRed = false;
+            botposeTagCount = 0;
+            botposeAvgDist_m = 0.0;
+            fiducialCount = 0;
+        }
+    }
+
+    // ========== DECODING ==========
+
+    /**
+     * Decodes the camera's current JSON dump.
+     *
+     * @param limelightName name of the Limelight
+     * @param out           buffer to fill
+     * @return true if decoded; false with out.error set if the JSON was missing or bad
+     */
+    public static boolean decode(String limelightName, Results out) {
+        return decodeJson(LimelightHelpers.getJSONDump(limelightName), out);
+    }
+
+    /**
+     * Decodes a JSON dump already read from the camera (or from a log).
+     */
+    public static boolean decodeJson(String json, Results out) {
+        long start = System.nanoTime();
+        out.clear();
+        boolean ok;
+        if (json == null || json.isEmpty()) {
+            out.error = "lljson error: empty dump";
+            ok = false;
+        } else {
+            try (JsonParser parser = factory.createParser(json)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("expected an object");
+                }
+                readResults(parser, out);
+                ok = true;
+            } catch (IOException e) {
+                out.error = "lljson error: " + e.getMessage();
+                ok = false;
+            }
+        }
+
+        out.latencyParse_ms = (System.nanoTime() - start) * 0.000001;
+        if (LimelightHelpers.profileJSON) {
+            System.out.printf("lljson stream: %.2f\r\n", out.latencyParse_ms);
+        }
+        return ok;
+    }
+
+    /**
+     * Reads fields until the end of the current object. Older dumps wrap everything in
+     * "Results", which is read the same way.
+     */
+    private static void readResults(JsonParser parser, Results out) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "Results":
+                    if (value == JsonToken.START_OBJECT) {
+                        readResults(parser, out);
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "v":
+                    out.valid = (value == JsonToken.VALUE_TRUE)
+                            || (value.isNumeric() && parser.getValueAsDouble() != 0.0);
+                    break;
+                case "tl":
+                    out.latencyPipeline_ms = parser.getValueAsDouble();
+                    break;
+                case "cl":
+                    out.latencyCapture_ms = parser.getValueAsDouble();
+                    break;
+                case "ts":
+                    out.timestampPublish_s = parser.getValueAsDouble();
+                    break;
+                case "ts_rio":
+                    out.timestampRioCapture_s = parser.getValueAsDouble();
+                    break;
+                case "botpose":
+                    out.hasBotpose = readArray(parser, out.botpose) >= 6;
+                    break;
+                case "botpose_wpiblue":
+                    out.hasBotposeWpiBlue = readArray(parser, out.botposeWpiBlue) >= 6;
+                    break;
+                case "botpose_wpired":
+                    out.hasBotposeWpiRed = readArray(parser, out.botposeWpiRed) >= 6;
+                    break;
+                case "botpose_tagcount":
+                    out.botposeTagCount = parser.getValueAsInt();
+                    break;
+                case "botpose_avgdist":
+                    out.botposeAvgDist_m = parser.getValueAsDouble();
+                    break;
+                case "Fiducial":
+                    readFiducials(parser, out);
+                    break;
+                default:
+                    // Retro, Barcode, Classifier, Detector, ...: skipped without being built
+                    parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readFiducials(JsonParser parser, Results out) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int id = -1;
+            double dist_m = Double.NaN;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (name.equals("fID")) {
+                    id = parser.getValueAsInt();
+                } else if (name.equals("t6t_rs")) {
+                    // Target pose in robot space, [x, y, z, ...]
+                    if (readArray(parser, out.scratch) >= 3) {
+                        double[] t = out.scratch;
+                        dist_m = Math.sqrt(t[0] * t[0] + t[1] * t[1] + t[2] * t[2]);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (out.fiducialCount < MAX_FIDUCIALS) {
+                out.fiducialIds[out.fiducialCount] = id;
+                out.fiducialDist_m[out.fiducialCount] = dist_m;
+            }
+            out.fiducialCount++;
+        }
+    }
+
+    /**
+     * Reads a number array into a buffer, dropping values past its length.
+     *
+     * @return how many values the JSON array held, 0 if it wasn't an array
+     */
+    private static int readArray(JsonParser parser, double[] into) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return 0;
+        }
+        int count = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token == null) {
+                throw new IOException("unterminated array");
+            }
+            if (count < into.length) {
+                into[count] = parser.getValueAsDouble();
+            }
+            parser.skipChildren();
+            count++;
+        }
+        return count;
+    }
+}
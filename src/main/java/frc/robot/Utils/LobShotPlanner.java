@@ -0,0 +1,248 @@
+package frc.robot.Utils;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.ShooterConstants;
+import frc.robot.Utils.HubShooterTrajectoryCalc.MutableShotSolution;
+
+/**
+ * LobShotPlanner - Precomputed passing/lob table built on RawTrajectoryCalc.
+ *
+ * RawTrajectoryCalc takes several ms per solve (1 deg sweep, bisection per angle), so the
+ * planner solves a (distance x target height) table once in the background at startup.
+ * Loop-time lookups are bilinear over flat arrays: O(1), no solver, no allocation.
+ * The table holds exit velocity and converts to RPS with the hub table's roller, so passes
+ * and hub shots are commanded on the same calibration.
+ *
+ * Landing points are a fixed grid inside our alliance zone. selectLandingPoint() picks the
+ * reachable point that needs the least roller speed, skipping points whose arc would not
+ * clear the hub.
+ *
+ * Usage:
+ *   LobShotPlanner.initializeAsync();   // once at startup
+ *
+ *   if (LobShotPlanner.isReady()) {
+ *       Translation2d landing = LobShotPlanner.selectLandingPoint(turretPos, isBlue);
+ *       LobShotPlanner.lookup(turretPos.getDistance(landing), LobShotPlanner.LANDING_HEIGHT_M, shot);
+ *   }
+ */
+public class LobShotPlanner {
+
+    // ========== TABLE CONSTANTS ==========
+    private static final double MIN_DISTANCE_M = 3.0;
+    private static final double MAX_DISTANCE_M = 14.0;
+    private static final double DISTANCE_STEP_M = 0.5;
+    private static final int DISTANCE_COUNT = (int) Math.round((MAX_DISTANCE_M - MIN_DISTANCE_M) / DISTANCE_STEP_M) + 1;
+    private static final double MIN_TARGET_HEIGHT_M = 0.0;
+    private static final double TARGET_HEIGHT_STEP_M = 0.5;
+    private static final int TARGET_HEIGHT_COUNT = 3;  // 0.0, 0.5, 1.0 m
+
+    // Hood range, as elevation from horizontal (tilt = 90 - elevation)
+    private static final double MIN_ELEVATION_DEG = 90.0 - ShooterConstants.maxDegree;
+    private static final double MAX_ELEVATION_DEG = 90.0 - ShooterConstants.minDegree;
+
+    /** Target height for passes: the ball is aimed at the carpet. */
+    public static final double LANDING_HEIGHT_M = 0.0;
+
+    // ========== FIELD (blue origin, meters) ==========
+    private static final double FIELD_LENGTH_M = 16.54;             //?
+    private static final double FIELD_WIDTH_M = 8.07;               //?
+    private static final double ALLIANCE_ZONE_DEPTH_M = 4.03;       // 158.6"
+    private static final double ZONE_MARGIN_M = 0.75;               // Off the walls and the zone line
+    private static final double CANDIDATE_STEP_M = 0.5;
+    private static final double BLUE_HUB_X_M = 4.63;                //? Same as ShotPredictor
+    private static final double RED_HUB_X_M = 11.9;                 //?
+    private static final double HUB_Y_M = 4.035;
+    private static final double HUB_KEEP_OUT_RADIUS_M = 0.8;        // Hub half-width + ball
+    private static final double HUB_CLEARANCE_HEIGHT_M = 2.2;       // 72" hub + margin //?
+
+    private static final Translation2d[] BLUE_CANDIDATES = buildCandidates(true);
+    private static final Translation2d[] RED_CANDIDATES = buildCandidates(false);
+
+    // ========== TABLE STORAGE (distance x target height, flat row-major by height) ==========
+    private static double[] tableElevation_deg = null;
+    private static double[] tableSpeed_mps = null;     // Exit velocity, converted to RPS at lookup like the hub grid
+    private static double[] tableAirtime_s = null;
+    private static double[] tablePeakHeight_m = null;
+    private static boolean[] tableValid = null;
+    private static volatile boolean ready = false;     // Written last, publishes the arrays
+
+    // Scratch for selectLandingPoint (main loop only)
+    private static final MutableShotSolution candidateLookup = new MutableShotSolution();
+
+    // ========== INITIALIZATION ==========
+
+    /**
+     * Builds the table on a low-priority daemon thread with the default shooter height (21").
+     * Lookups report no solution until isReady() is true.
+     */
+    public static void initializeAsync() {
+        initializeAsync(0.533);
+    }
+
+    /**
+     * Builds the table on a low-priority daemon thread.
+     * @param shooterHeight_m Shooter exit height for every table entry
+     */
+    public static void initializeAsync(double shooterHeight_m) {
+        Thread thread = new Thread(() -> initialize(shooterHeight_m), "LobShotPlanner");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Builds the table on the calling thread.
+     * @param shooterHeight_m Shooter exit height for every table entry
+     */
+    public static synchronized void initialize(double shooterHeight_m) {
+        System.out.println("LobShotPlanner: Building table (" + TARGET_HEIGHT_COUNT + " x " + DISTANCE_COUNT + ")...");
+        long startTime = System.currentTimeMillis();
+
+        int n = TARGET_HEIGHT_COUNT * DISTANCE_COUNT;
+        double[] elevation = new double[n];
+        double[] speed = new double[n];
+        double[] airtime = new double[n];
+        double[] peak = new double[n];
+        boolean[] valid = new boolean[n];
+
+        RawTrajectoryCalc calc = new RawTrajectoryCalc();
+        calc.setShooterHeightM(shooterHeight_m);
+        calc.setSlipPercentage(1.0);
+        calc.setShotModel(HubShooterTrajectoryCalc.getShotModel());
+        calc.setMinElevationDeg(MIN_ELEVATION_DEG);
+        calc.setMaxElevationDeg(MAX_ELEVATION_DEG);
+
+        int validCount = 0;
+        for (int h = 0; h < TARGET_HEIGHT_COUNT; h++) {
+            calc.setTargetHeightM(MIN_TARGET_HEIGHT_M + h * TARGET_HEIGHT_STEP_M);
+            for (int d = 0; d < DISTANCE_COUNT; d++) {
+                int i = h * DISTANCE_COUNT + d;
+                calc.setTargetDistanceM(MIN_DISTANCE_M + d * DISTANCE_STEP_M);
+                valid[i] = calc.run();
+                if (valid[i]) {
+                    elevation[i] = calc.getElevationDeg();
+                    speed[i] = calc.getExitVelocityMps();
+                    airtime[i] = calc.getAirtimeS();
+                    peak[i] = calc.getPeakHeightM();
+                    validCount++;
+                }
+            }
+        }
+
+        tableElevation_deg = elevation;
+        tableSpeed_mps = speed;
+        tableAirtime_s = airtime;
+        tablePeakHeight_m = peak;
+        tableValid = valid;
+        ready = true;
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        System.out.printf("LobShotPlanner: Table built in %dms (%d/%d valid)%n", elapsed, validCount, n);
+    }
+
+    /**
+     * @return true once the table has been built
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    public static double getMinDistanceM() { return MIN_DISTANCE_M; }
+    public static double getMaxDistanceM() { return MAX_DISTANCE_M; }
+
+    // ========== LOOKUP ==========
+
+    /**
+     * Bilinear lookup over (distance, target height). Inputs are clamped to the table.
+     * Does not allocate.
+     *
+     * @param distance_m Horizontal distance to the landing point
+     * @param targetHeight_m Height of the landing point above the carpet
+     * @param out Filled with the interpolated solution
+     * @return true if a solution was found
+     */
+    public static boolean lookup(double distance_m, double targetHeight_m, MutableShotSolution out) {
+        out.distance_m = distance_m;
+        out.valid = false;
+        if (!ready) return false;
+
+        double speed_mps = HubShooterTrajectoryCalc.interpolateGrid(
+                tableElevation_deg, tableSpeed_mps, tableAirtime_s, tablePeakHeight_m, tableValid,
+                distance_m, MIN_DISTANCE_M, DISTANCE_STEP_M, DISTANCE_COUNT,
+                targetHeight_m, MIN_TARGET_HEIGHT_M, TARGET_HEIGHT_STEP_M, TARGET_HEIGHT_COUNT, out);
+        if (Double.isNaN(speed_mps)) return false;
+        // Same slip as hub shots, including a live override
+        out.speed_rps = HubShooterTrajectoryCalc.exitVelocityToRps(speed_mps, HubShooterTrajectoryCalc.getSlipFactor());
+        out.valid = true;
+        return true;
+    }
+
+    // ========== LANDING POINT SELECTION ==========
+
+    /**
+     * Picks the landing point in our alliance zone that needs the least roller speed from here.
+     * Points whose straight-line path crosses the hub are only used if the arc peaks above it.
+     * Not thread-safe (shared scratch), call from the main loop.
+     *
+     * @param from Launch position (turret, field coordinates)
+     * @param blueAlliance true for the blue alliance zone, false for red
+     * @return the chosen landing point (shared instance, do not modify), or null if none is reachable
+     */
+    public static Translation2d selectLandingPoint(Translation2d from, boolean blueAlliance) {
+        if (!ready) return null;
+
+        Translation2d[] candidates = blueAlliance ? BLUE_CANDIDATES : RED_CANDIDATES;
+        double hubX = blueAlliance ? BLUE_HUB_X_M : RED_HUB_X_M;
+        double fromX = from.getX();
+        double fromY = from.getY();
+
+        Translation2d best = null;
+        double bestSpeed = Double.MAX_VALUE;
+        for (Translation2d candidate : candidates) {
+            double distance = Math.hypot(candidate.getX() - fromX, candidate.getY() - fromY);
+            if (distance < MIN_DISTANCE_M || distance > MAX_DISTANCE_M) continue;
+            if (!lookup(distance, LANDING_HEIGHT_M, candidateLookup)) continue;
+            if (candidateLookup.speed_rps >= bestSpeed) continue;
+
+            // Peak is only a proxy for the height over the hub, but lobs here peak late enough
+            if (segmentDistance(fromX, fromY, candidate.getX(), candidate.getY(), hubX, HUB_Y_M) < HUB_KEEP_OUT_RADIUS_M
+                    && candidateLookup.peakHeight_m < HUB_CLEARANCE_HEIGHT_M) {
+                continue;
+            }
+
+            best = candidate;
+            bestSpeed = candidateLookup.speed_rps;
+        }
+        return best;
+    }
+
+    /**
+     * Distance from point (px, py) to the segment (ax, ay)-(bx, by).
+     */
+    private static double segmentDistance(double ax, double ay, double bx, double by, double px, double py) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSq : 0;
+        if (t < 0) t = 0;
+        if (t > 1) t = 1;
+        return Math.hypot(ax + t * dx - px, ay + t * dy - py);
+    }
+
+    /**
+     * Grid of landing points inside the alliance zone, mirrored in X for red.
+     */
+    private static Translation2d[] buildCandidates(boolean blueAlliance) {
+        int xCount = (int) ((ALLIANCE_ZONE_DEPTH_M - 2 * ZONE_MARGIN_M) / CANDIDATE_STEP_M) + 1;
+        int yCount = (int) ((FIELD_WIDTH_M - 2 * ZONE_MARGIN_M) / CANDIDATE_STEP_M) + 1;
+        Translation2d[] candidates = new Translation2d[xCount * yCount];
+        for (int i = 0; i < xCount; i++) {
+            double depth = ZONE_MARGIN_M + i * CANDIDATE_STEP_M;
+            double x = blueAlliance ? depth : FIELD_LENGTH_M - depth;
+            for (int j = 0; j < yCount; j++) {
+                candidates[i * yCount + j] = new Translation2d(x, ZONE_MARGIN_M + j * CANDIDATE_STEP_M);
+            }
+        }
+        return candidates;
+    }
+}
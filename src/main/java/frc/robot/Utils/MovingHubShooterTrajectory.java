@@ -39,6 +39,13 @@ public class MovingHubShooterTrajectory {
     // ========== ENUMS ==========
     public enum Alliance { RED, BLUE }
 
+    /**
+     * ITERATIVE: fixed-point on aim distance with a cache lookup per iteration (up to MAX_ITERATIONS).
+     * POLYNOMIAL: airtime(distance) fitted once at init; intercept solved with a fixed number of
+     *             Newton steps and a single cache lookup, so per-loop cost is constant.
+     */
+    public enum LeadMode { ITERATIVE, POLYNOMIAL }
+
     // ========== FIELD CONSTANTS ==========
     // Field dimensions: ~16.46m x 8.23m (54ft x 27ft)
     private static final double FIELD_LENGTH_M = 16.46;
@@ -61,9 +68,18 @@ public class MovingHubShooterTrajectory {
     // ========== LEAD COMPENSATION ==========
     private static final int MAX_ITERATIONS = 5;
     private static final double CONVERGENCE_THRESHOLD_M = 0.01;
+    private static final int POLYNOMIAL_NEWTON_STEPS = 3;     // Fixed; g'(T) >= 0.5 below ~5 m/s so this converges
+    private static final double AIRTIME_FIT_STEP_M = 0.05;    // Sampling step for the airtime fit
 
     // ========== STATE ==========
     private boolean initialized = false;
+    private final HubShooterTrajectoryCalc.MutableShotSolution entry =
+        new HubShooterTrajectoryCalc.MutableShotSolution();  // Reused cache lookup result
+    private LeadMode leadMode = LeadMode.ITERATIVE;
+    private boolean airtimeFitValid = false;
+    private double airtimeC0 = 0.0;  // airtime_s ~= c0 + c1*d + c2*d^2
+    private double airtimeC1 = 0.0;
+    private double airtimeC2 = 0.0;
 
     // ========== INPUTS ==========
     private double robotX_field_m = 0.0;
@@ -96,14 +112,15 @@ public class MovingHubShooterTrajectory {
     
     /**
      * Initialize by loading HubShooterTrajectoryCalc cache.
-     * Call once at robot startup. Loads from JSON file if available.
+     * Call once at robot startup. Loads from the binary cache file if available.
      */
     public void initialize() {
         System.out.println("MovingHubShooterTrajectory: Initializing...");
         long startTime = System.currentTimeMillis();
 
-        // Initialize the trajectory cache (loads from JSON or builds)
+        // Initialize the trajectory cache (loads from cache file or builds)
         HubShooterTrajectoryCalc.initializeCache();
+        fitAirtimePolynomial();
 
         initialized = true;
         long elapsed = System.currentTimeMillis() - startTime;
@@ -136,6 +153,11 @@ public class MovingHubShooterTrajectory {
         this.alliance = alliance;
     }
 
+    /** Select lead compensation solver (POLYNOMIAL falls back to ITERATIVE if the fit failed) */
+    public void setLeadMode(LeadMode leadMode) {
+        this.leadMode = leadMode;
+    }
+
     // ========== OUTPUT GETTERS ==========
 
     /** @return turret azimuth in FIELD frame with lead (degrees, 0=downfield, 90=left) */
@@ -194,21 +216,27 @@ public class MovingHubShooterTrajectory {
         
         double aimDist;
         double aimDx, aimDy;
-        HubShooterTrajectoryCalc.CacheEntry entry;
+
+        double leadTime_s = -1;  // Set when the closed-form intercept supplies its own airtime
 
         if (!isMoving) {
             // Stationary: aim directly at hub
             aimDist = directDist;
             aimDx = directDx;
             aimDy = directDy;
-            entry = HubShooterTrajectoryCalc.lookupCache(aimDist);
-            if (entry == null || !entry.valid) return false;
+            if (!HubShooterTrajectoryCalc.lookupInto(aimDist, entry)) return false;
+        } else if (leadMode == LeadMode.POLYNOMIAL && airtimeFitValid) {
+            // Closed-form lead: solve T = airtime(|hub - robot - v*T|) with fixed Newton steps
+            leadTime_s = solveInterceptTime(directDx, directDy, directDist);
+            aimDx = directDx - velocityX_field_mps * leadTime_s;
+            aimDy = directDy - velocityY_field_mps * leadTime_s;
+            aimDist = Math.sqrt(aimDx * aimDx + aimDy * aimDy);
+            if (!HubShooterTrajectoryCalc.lookupInto(aimDist, entry)) return false;
         } else {
             // Moving: iterative lead compensation (typically converges in 2-3 iterations)
             double aimX = robotX_field_m;
             double aimY = robotY_field_m;
             double prevDistSq = 0;
-            entry = null;
 
             for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
                 aimDx = hubX - aimX;
@@ -225,8 +253,7 @@ public class MovingHubShooterTrajectory {
 
                 // Single cache lookup per iteration
                 double dist = Math.sqrt(distSq);
-                entry = HubShooterTrajectoryCalc.lookupCache(dist);
-                if (entry == null || !entry.valid) return false;
+                if (!HubShooterTrajectoryCalc.lookupInto(dist, entry)) return false;
 
                 // Predict future position
                 aimX = robotX_field_m + velocityX_field_mps * entry.airtime_s;
@@ -239,15 +266,14 @@ public class MovingHubShooterTrajectory {
             aimDist = Math.sqrt(aimDx * aimDx + aimDy * aimDy);
             
             // Final cache lookup if distance changed significantly
-            entry = HubShooterTrajectoryCalc.lookupCache(aimDist);
-            if (entry == null || !entry.valid) return false;
+            if (!HubShooterTrajectoryCalc.lookupInto(aimDist, entry)) return false;
         }
 
         // Extract results from single cache entry
         targetDistance_m = aimDist;
         elevation_deg = entry.elevation_deg;
         shooterSpeed_rps = entry.speed_rps;
-        airtime_s = entry.airtime_s;
+        airtime_s = (leadTime_s >= 0) ? leadTime_s : entry.airtime_s;
 
         // Validate elevation limits
         if (elevation_deg < MIN_ELEVATION_TURRET_DEG || elevation_deg > MAX_ELEVATION_TURRET_DEG) {
@@ -278,6 +304,67 @@ public class MovingHubShooterTrajectory {
         return true;
     }
 
+    /**
+     * Solve the moving-shooter intercept time T = A(s(T)), where A is the fitted airtime
+     * polynomial and s(T) = |direct - v*T| is the aim distance after T seconds of travel.
+     * Newton from T0 = A(direct distance); always runs POLYNOMIAL_NEWTON_STEPS steps.
+     */
+    private double solveInterceptTime(double directDx, double directDy, double directDist) {
+        double minDist = HubShooterTrajectoryCalc.getCacheMinDistanceM();
+        double maxDist = HubShooterTrajectoryCalc.getCacheMaxDistanceM();
+        double t = airtimeAt(Math.max(minDist, Math.min(maxDist, directDist)));
+        for (int i = 0; i < POLYNOMIAL_NEWTON_STEPS; i++) {
+            double ax = directDx - velocityX_field_mps * t;
+            double ay = directDy - velocityY_field_mps * t;
+            double s = Math.max(1e-6, Math.sqrt(ax * ax + ay * ay));
+            // Cache lookups clamp distance, so the fit is flat outside the cache range
+            double sc = Math.max(minDist, Math.min(maxDist, s));
+            double slope = (s == sc) ? airtimeC1 + 2 * airtimeC2 * sc : 0.0;
+            double dsdt = -(ax * velocityX_field_mps + ay * velocityY_field_mps) / s;
+            double g = t - airtimeAt(sc);
+            double dg = 1.0 - slope * dsdt;
+            t -= g / Math.max(0.1, dg);
+            t = Math.max(0.0, t);
+        }
+        return t;
+    }
+
+    /** Evaluate the fitted airtime polynomial */
+    private double airtimeAt(double distance_m) {
+        return airtimeC0 + (airtimeC1 + airtimeC2 * distance_m) * distance_m;
+    }
+
+    /**
+     * Least-squares quadratic fit of airtime vs. distance over the valid cache range.
+     * Called once from initialize(); leaves airtimeFitValid false if the cache has too few points.
+     */
+    private void fitAirtimePolynomial() {
+        // Normal equations for [c0 c1 c2] with basis 1, d, d^2
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double t0 = 0, t1 = 0, t2 = 0;
+        double minDist = HubShooterTrajectoryCalc.getCacheMinDistanceM();
+        double maxDist = HubShooterTrajectoryCalc.getCacheMaxDistanceM();
+        for (double d = minDist; d <= maxDist + 1e-9; d += AIRTIME_FIT_STEP_M) {
+            if (!HubShooterTrajectoryCalc.lookupInto(d, entry)) continue;
+            double d2 = d * d;
+            double a = entry.airtime_s;
+            s0 += 1; s1 += d; s2 += d2; s3 += d2 * d; s4 += d2 * d2;
+            t0 += a; t1 += a * d; t2 += a * d2;
+        }
+        airtimeFitValid = false;
+        if (s0 < 3) return;
+
+        // Cramer's rule on the symmetric 3x3 system
+        double det = s0 * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+        if (Math.abs(det) < 1e-12) return;
+        airtimeC0 = (t0 * (s2 * s4 - s3 * s3) - s1 * (t1 * s4 - s3 * t2) + s2 * (t1 * s3 - s2 * t2)) / det;
+        airtimeC1 = (s0 * (t1 * s4 - t2 * s3) - t0 * (s1 * s4 - s3 * s2) + s2 * (s1 * t2 - t1 * s2)) / det;
+        airtimeC2 = (s0 * (s2 * t2 - s3 * t1) - s1 * (s1 * t2 - s2 * t1) + t0 * (s1 * s3 - s2 * s2)) / det;
+        airtimeFitValid = true;
+        System.out.printf("MovingHubShooterTrajectory: airtime fit %.4f + %.4f*d + %.5f*d^2%n",
+                          airtimeC0, airtimeC1, airtimeC2);
+    }
+
     /**
      * Calculate shot quality based on airtime (ball wobble/drift) and velocity (prediction uncertainty).
      * 
@@ -312,18 +399,15 @@ public class MovingHubShooterTrajectory {
     // ========== LOOKUP HELPERS (via HubShooterTrajectoryCalc) ==========
 
     private double lookupElevation(double distance_m) {
-        HubShooterTrajectoryCalc.CacheEntry entry = HubShooterTrajectoryCalc.lookupCache(distance_m);
-        return (entry != null && entry.valid) ? entry.elevation_deg : -1;
+        return HubShooterTrajectoryCalc.lookupInto(distance_m, entry) ? entry.elevation_deg : -1;
     }
 
     private double lookupSpeed(double distance_m) {
-        HubShooterTrajectoryCalc.CacheEntry entry = HubShooterTrajectoryCalc.lookupCache(distance_m);
-        return (entry != null && entry.valid) ? entry.speed_rps : -1;
+        return HubShooterTrajectoryCalc.lookupInto(distance_m, entry) ? entry.speed_rps : -1;
     }
 
     private double lookupAirtime(double distance_m) {
-        HubShooterTrajectoryCalc.CacheEntry entry = HubShooterTrajectoryCalc.lookupCache(distance_m);
-        return (entry != null && entry.valid) ? entry.airtime_s : 0.5;  // Default 0.5s if invalid
+        return HubShooterTrajectoryCalc.lookupInto(distance_m, entry) ? entry.airtime_s : 0.5;  // Default 0.5s if invalid
     }
 
     // ========== UTILITY ==========
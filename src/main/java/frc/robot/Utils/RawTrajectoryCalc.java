@@ -1,5 +1,7 @@
 package frc.robot.Utils;
 
+import java.util.Arrays;
+
 /**
  * RawTrajectoryCalc - Calculates elevation angle and shooter speed for dual roller shooter.
  * 
@@ -7,10 +9,13 @@ package frc.robot.Utils;
  * No lip clearance, no funnel - just hit a target point.
  * 
  * Shooter configuration:
- *   - Dual coned TPR rollers (3"→4" cones), 88.9mm effective diameter
+ *   - Dual coned TPR rollers, same effective diameter as HubShooterTrajectoryCalc
  *   - 1:1 counter-rotating (opposite directions, same speed)
- *   - Zero backspin (counter-rotation cancels spin)
- *   - Exit velocity = π × 0.0889 × RPS (100% velocity transfer)
+ *   - Drag and backspin lift from the BallisticsEngine.ShotModel passed to setShotModel()
+ *   - Exit velocity = π × roller diameter × RPS × slip (getExitVelocityMps() gives it directly)
+ * 
+ * Search: every elevation angle is a BallisticsEngine lane, and the per-angle speed
+ * bisections run side by side (one batch simulation per bisection step).
  * 
  * Usage:
  *   RawTrajectoryCalc calc = new RawTrajectoryCalc();
@@ -25,27 +30,24 @@ package frc.robot.Utils;
  *       double angle = calc.getElevationDeg();
  *       double speed = calc.getShooterSpeedRps();
  *       double peak = calc.getPeakHeightM();
+ *       double airtime = calc.getAirtimeS();
  *   }
  * 
  * @author FRC Team [Your Number]
  */
 public class RawTrajectoryCalc {
     
-    // ========== BALL PHYSICS ==========
-    private static final double BALL_DIAMETER_M = 0.1501;
-    private static final double BALL_RADIUS_M = BALL_DIAMETER_M / 2;
-    private static final double BALL_MASS_KG = 0.215;
-    private static final double BALL_AREA_M2 = Math.PI * Math.pow(BALL_RADIUS_M, 2);
-    private static final double DRAG_COEFF = 0.47;
-    private static final double AIR_DENSITY = 1.225;
-    private static final double GRAVITY = 9.81;
+    // Ball physics (diameter, mass, drag) is shared with HubShooterTrajectoryCalc in BallisticsEngine
     
     // ========== SHOOTER CONSTANTS ==========
-    private static final double ROLLER_DIAMETER_M = 0.0889;
+    private static final double ROLLER_DIAMETER_M = HubShooterTrajectoryCalc.ROLLER_DIAMETER_M;  // One shooter, one calibration
     
     // ========== SIMULATION PARAMETERS ==========
-    private static final double DT = 0.0005;
     private static final double MAX_SIM_TIME = 5.0;
+    private static final double MIN_HEIGHT_M = -0.5;      // Stop a lane once this far below the floor
+    private static final double OVERSHOOT_M = 10.0;       // Stop a lane this far past the target
+    private static final double ANGLE_STEP_DEG = 1.0;
+    private static final int BISECTION_ITERATIONS = 50;
     
     // ========== INPUTS (Properties) ==========
     private double shooterHeightM = 0.533;
@@ -58,7 +60,17 @@ public class RawTrajectoryCalc {
     // ========== OUTPUTS (Properties) ==========
     private double elevationDeg = 0.0;
     private double shooterSpeedRps = 0.0;
+    private double exitVelocityMps = 0.0;
     private double peakHeightM = 0.0;
+    private double airtimeS = 0.0;
+    
+    // ========== SEARCH SCRATCH (reused, not thread-safe) ==========
+    private final BallisticsEngine engine = new BallisticsEngine(40);
+    private double[] laneAngle = new double[40];
+    private double[] laneMin = new double[40];
+    private double[] laneMax = new double[40];
+    private double[] laneSpeed = new double[40];   // Solved exit speed, -1 while unsolved
+    private int[] laneSlots = new int[40];         // Engine slot -> lane for the current batch
     
     // ========== CONSTRUCTORS ==========
     
@@ -102,6 +114,14 @@ public class RawTrajectoryCalc {
         this.slipPercentage = value;
     }
     
+    /**
+     * Sets the drag / spin-lift model (default: Cd 0.47, no spin).
+     * @param model Usually HubShooterTrajectoryCalc.getShotModel(), so both calculators agree
+     */
+    public void setShotModel(BallisticsEngine.ShotModel model) {
+        engine.setShotModel(model);
+    }
+    
     /**
      * Sets the maximum allowed elevation angle.
      * @param value Angle in degrees
@@ -160,6 +180,13 @@ public class RawTrajectoryCalc {
         return shooterSpeedRps;
     }
     
+    /**
+     * @return Ball speed leaving the shooter in m/s, independent of roller size and slip
+     */
+    public double getExitVelocityMps() {
+        return exitVelocityMps;
+    }
+    
     /**
      * @return Maximum height of ball trajectory in meters
      */
@@ -167,6 +194,13 @@ public class RawTrajectoryCalc {
         return peakHeightM;
     }
     
+    /**
+     * @return Time from launch to crossing the target height (descending) in seconds
+     */
+    public double getAirtimeS() {
+        return airtimeS;
+    }
+    
     // ========== RUN METHOD ==========
     
     /**
@@ -180,36 +214,51 @@ public class RawTrajectoryCalc {
         // Reset outputs
         elevationDeg = 0.0;
         shooterSpeedRps = 0.0;
+        exitVelocityMps = 0.0;
         peakHeightM = 0.0;
+        airtimeS = 0.0;
+        
+        int n = 0;
+        for (double angle = minElevationDeg; angle <= maxElevationDeg; angle += ANGLE_STEP_DEG) {
+            ensureLanes(n + 1);
+            laneAngle[n] = angle;
+            laneMin[n] = 3.0;
+            laneMax[n] = 35.0;
+            laneSpeed[n] = -1;
+            n++;
+        }
         
-        double bestAngle = -1;
-        double bestSpeed = Double.MAX_VALUE;
-        double bestPeak = 0;
+        engine.setLaunchHeightM(shooterHeightM);
+        engine.setEvents(Double.POSITIVE_INFINITY, Double.NaN, targetHeightM);
+        engine.setLimits(MIN_HEIGHT_M, targetDistanceM + OVERSHOOT_M, MAX_SIM_TIME);
+        findSpeedsForAngles(n);
         
-        // Search all angles with fine step, find minimum speed solution
-        for (double angle = minElevationDeg; angle <= maxElevationDeg; angle += 1.0) {
-            
-            double speedResult = findSpeedForAngle(angle, targetDistanceM, targetHeightM);
-            
-            if (speedResult > 0 && speedResult < bestSpeed) {
-                TrajectoryResult traj = simulateTrajectory(speedResult, angle);
-                
-                if (traj.valid) {
-                    double error = Math.abs(traj.landingX - targetDistanceM);
-                    
-                    if (error < 0.2) {
-                        bestSpeed = speedResult;
-                        bestAngle = angle;
-                        bestPeak = traj.peakHeight;
-                    }
-                }
+        // Re-check every solved angle in one batch, find minimum speed solution
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (laneSpeed[i] > 0) {
+                laneSlots[count] = i;
+                engine.setLane(count++, laneSpeed[i], laneAngle[i]);
+            }
+        }
+        engine.simulate(count);
+        
+        int bestSlot = -1;
+        for (int slot = 0; slot < count; slot++) {
+            double landingX = engine.getLandingXM(slot);
+            if (landingX >= 0 && Math.abs(landingX - targetDistanceM) < 0.2
+                    && (bestSlot < 0 || laneSpeed[laneSlots[slot]] < laneSpeed[laneSlots[bestSlot]])) {
+                bestSlot = slot;
             }
         }
         
-        if (bestAngle > 0 && bestSpeed < Double.MAX_VALUE) {
-            this.elevationDeg = bestAngle;
-            this.shooterSpeedRps = velocityToRps(bestSpeed);
-            this.peakHeightM = bestPeak;
+        if (bestSlot >= 0) {
+            int lane = laneSlots[bestSlot];
+            this.elevationDeg = laneAngle[lane];
+            this.shooterSpeedRps = velocityToRps(laneSpeed[lane]);
+            this.exitVelocityMps = laneSpeed[lane];
+            this.peakHeightM = engine.getPeakHeightM(bestSlot);
+            this.airtimeS = engine.getLandingTimeS(bestSlot);
             return true;
         }
         
@@ -218,124 +267,63 @@ public class RawTrajectoryCalc {
     
     // ========== PRIVATE METHODS ==========
     
-    private double findSpeedForAngle(double angleDeg, double targetX, double targetZ) {
-        double vMin = 3.0;
-        double vMax = 35.0;
-        
-        for (int i = 0; i < 50; i++) {
-            double vMid = (vMin + vMax) / 2;
-            TrajectoryResult traj = simulateTrajectory(vMid, angleDeg);
-            
-            // If invalid AND landed short, need more speed
-            // If invalid AND overshot, need less speed
-            if (!traj.valid) {
-                // Check where ball ended up
-                if (traj.landingX < targetX) {
-                    vMin = vMid;  // Short - need more speed
-                } else {
-                    vMax = vMid;  // Overshot or other issue - need less speed
+    /**
+     * Bisects exit speed for every angle lane at once (3-35 m/s) so the ball descends
+     * through the target height within 2cm of the target distance, accepting the final
+     * midpoint within 20cm. Unsolved lanes keep laneSpeed = -1.
+     */
+    private void findSpeedsForAngles(int n) {
+        for (int iter = 0; iter <= BISECTION_ITERATIONS; iter++) {
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (laneSpeed[i] < 0) {
+                    laneSlots[count] = i;
+                    engine.setLane(count++, (laneMin[i] + laneMax[i]) / 2, laneAngle[i]);
                 }
-                continue;
-            }
-            
-            double landingError = traj.landingX - targetX;
-            
-            if (Math.abs(landingError) < 0.02) {
-                return vMid;
             }
+            if (count == 0) return;
+            engine.simulate(count);
             
-            if (landingError < 0) {
-                vMin = vMid;
-            } else {
-                vMax = vMid;
+            boolean finalCheck = iter == BISECTION_ITERATIONS;
+            for (int slot = 0; slot < count; slot++) {
+                int lane = laneSlots[slot];
+                double vMid = (laneMin[lane] + laneMax[lane]) / 2;
+                double landingX = engine.getLandingXM(slot);
+                
+                if (finalCheck) {
+                    if (landingX >= 0 && Math.abs(landingX - targetDistanceM) < 0.2) {
+                        laneSpeed[lane] = vMid;
+                    }
+                    continue;
+                }
+                
+                // Never reached the target height on the way down: decide by where the ball ended up
+                double endX = landingX >= 0 ? landingX : engine.getFinalXM(slot);
+                if (landingX >= 0 && Math.abs(landingX - targetDistanceM) < 0.02) {
+                    laneSpeed[lane] = vMid;
+                } else if (endX < targetDistanceM) {
+                    laneMin[lane] = vMid;  // Short - need more speed
+                } else {
+                    laneMax[lane] = vMid;  // Overshot or other issue - need less speed
+                }
             }
         }
-        
-        // Check if final value is close enough
-        TrajectoryResult finalTraj = simulateTrajectory((vMin + vMax) / 2, angleDeg);
-        if (finalTraj.valid && Math.abs(finalTraj.landingX - targetX) < 0.2) {
-            return (vMin + vMax) / 2;
-        }
-        
-        return -1;
     }
     
-    private TrajectoryResult simulateTrajectory(double v0, double angleDeg) {
-        double angleRad = Math.toRadians(angleDeg);
-        double vx = v0 * Math.cos(angleRad);
-        double vz = v0 * Math.sin(angleRad);
-        
-        double x = 0;
-        double z = shooterHeightM;
-        double peakHeight = z;
-        boolean passedPeak = false;
-        double prevZ = z;
-        double prevX = x;
-        
-        double t = 0;
-        while (t < MAX_SIM_TIME && z >= -0.5 && x < targetDistanceM + 10.0) {
-            double v = Math.sqrt(vx * vx + vz * vz);
-            double drag = 0.5 * AIR_DENSITY * v * v * DRAG_COEFF * BALL_AREA_M2;
-            
-            double ax = -drag / BALL_MASS_KG * (vx / v);
-            double az = -drag / BALL_MASS_KG * (vz / v) - GRAVITY;
-            
-            vx += ax * DT;
-            vz += az * DT;
-            
-            prevZ = z;
-            prevX = x;
-            x += vx * DT;
-            z += vz * DT;
-            
-            if (vz < 0 && !passedPeak) {
-                passedPeak = true;
-            }
-            if (z > peakHeight) {
-                peakHeight = z;
-            }
-            
-            // Check when ball crosses target height (descending)
-            // Must be past peak AND currently descending (vz < 0)
-            if (passedPeak && vz < 0 && z <= targetHeightM && prevZ > targetHeightM) {
-                double frac = (targetHeightM - prevZ) / (z - prevZ);
-                double xAtTarget = prevX + frac * (x - prevX);
-                return new TrajectoryResult(true, xAtTarget, targetHeightM, peakHeight);
-            }
-            
-            // Also check if we're past target distance and descending through target height
-            if (passedPeak && vz < 0 && x >= targetDistanceM - 0.5 && x <= targetDistanceM + 0.5) {
-                if (z <= targetHeightM + 0.1 && z >= targetHeightM - 0.1) {
-                    return new TrajectoryResult(true, x, z, peakHeight);
-                }
-            }
-            
-            t += DT;
-        }
-        
-        return new TrajectoryResult(false, x, z, peakHeight);
+    private void ensureLanes(int needed) {
+        if (needed <= laneAngle.length) return;
+        int size = Math.max(needed, laneAngle.length * 2);
+        laneAngle = Arrays.copyOf(laneAngle, size);
+        laneMin = Arrays.copyOf(laneMin, size);
+        laneMax = Arrays.copyOf(laneMax, size);
+        laneSpeed = Arrays.copyOf(laneSpeed, size);
+        laneSlots = Arrays.copyOf(laneSlots, size);
     }
     
     private double velocityToRps(double velocity) {
         return velocity / (Math.PI * ROLLER_DIAMETER_M * slipPercentage);
     }
     
-    // ========== INNER CLASS ==========
-    
-    private static class TrajectoryResult {
-        final boolean valid;
-        final double landingX;
-        final double landingZ;
-        final double peakHeight;
-        
-        TrajectoryResult(boolean valid, double landingX, double landingZ, double peakHeight) {
-            this.valid = valid;
-            this.landingX = landingX;
-            this.landingZ = landingZ;
-            this.peakHeight = peakHeight;
-        }
-    }
-    
     // ========== TEST ==========
     
     public static void Test() {
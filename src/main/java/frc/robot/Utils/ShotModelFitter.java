@@ -0,0 +1,361 @@
+package frc.robot.Utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import frc.robot.Utils.BallisticsEngine.ShotModel;
+
+/**
+ * ShotModelFitter - Offline (desktop) fit of the drag / spin-lift shot model to logged shots.
+ *
+ * The trajectory tables assume Cd = 0.47 and no spin, which is why the shooter speed still
+ * comes from an empirical line (ShotPredictor.getVelocity). This tool fits the ball model to
+ * real shots instead, writes it to the deploy directory and rebuilds the hub table with it,
+ * so the table itself matches the robot.
+ *
+ * Shot log (CSV, one shot per line; header, blank and # lines are skipped):
+ *   hood_deg, wheel_rps, distance_m, made
+ *   - hood_deg:   hood tilt from vertical at launch (Shot.tilt), elevation = 90 - hood
+ *   - wheel_rps:  measured roller speed at launch
+ *   - distance_m: turret to hub center
+ *   - made:       1/0 or true/false
+ *
+ * Fit:
+ *   - A made shot crossed the target height inside the hub, so it gives one residual:
+ *     simulated target-height crossing - logged distance. A miss has no direction, so misses
+ *     only show up in the report (misses the fitted model would call makes).
+ *   - Parameters: slip, Cd at 10 m/s, dCd/dv, C_L at launch. Slip and drag both scale range,
+ *     so each parameter also gets a weak prior residual pulling it towards the default model;
+ *     with few shots the fit stays close to it instead of trading one for the other.
+ *   - Levenberg-Marquardt least squares with a forward-difference Jacobian. Every residual
+ *     evaluation is a single BallisticsEngine batch over all made shots.
+ *
+ * Usage (desktop):
+ *   ./gradlew fitShotModel -PshotLog=shots.csv
+ *   or: java frc.robot.Utils.ShotModelFitter shots.csv [--out shot_model.properties]
+ *                                            [--cache trajectory_cache.bin] [--height 0.533]
+ */
+public class ShotModelFitter {
+
+    // ========== FIT PARAMETERS ==========
+    private static final int PARAM_COUNT = 4;   // slip, Cd, dCd/dv, C_L at launch
+    private static final String[] PARAM_NAMES = {"slip", "Cd", "dCd/dv", "CL0"};
+    private static final double[] PRIOR_SIGMA = {0.2, 0.15, 0.01, 0.2};    // Spread allowed around DEFAULT
+    private static final double[] PARAM_MIN = {0.3, 0.05, -0.03, -0.5};
+    private static final double[] PARAM_MAX = {1.2, 1.5, 0.03, 0.8};
+    private static final double[] JACOBIAN_STEP = {1e-4, 1e-4, 1e-6, 1e-4};
+    private static final double RESIDUAL_SIGMA_M = HubShooterTrajectoryCalc.TARGET_TOLERANCE_M;
+    private static final int MAX_ITERATIONS = 50;
+    private static final int MIN_MADE_SHOTS = 3;
+
+    // ========== DATA ==========
+    private final List<double[]> made = new ArrayList<>();     // {elevation_deg, rps, distance_m}
+    private final List<double[]> missed = new ArrayList<>();
+    private final BallisticsEngine engine = new BallisticsEngine(64);
+
+    public ShotModelFitter(double shooterHeight_m) {
+        engine.setLaunchHeightM(shooterHeight_m);
+    }
+
+    // ========== INPUT ==========
+
+    /**
+     * Reads a shot log. Lines that don't parse (header, comments) are skipped.
+     */
+    public void load(Path csv) throws IOException {
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(csv)) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] cols = line.split("[,;\\t]");
+            if (cols.length < 4) {
+                System.out.println("ShotModelFitter: Skipping line " + lineNumber + " (expected 4 columns)");
+                continue;
+            }
+            try {
+                double hood_deg = Double.parseDouble(cols[0].trim());
+                double rps = Double.parseDouble(cols[1].trim());
+                double distance_m = Double.parseDouble(cols[2].trim());
+                String result = cols[3].trim().toLowerCase();
+                boolean isMade = result.equals("1") || result.equals("true") || result.equals("made");
+                addShot(hood_deg, rps, distance_m, isMade);
+            } catch (NumberFormatException e) {
+                if (lineNumber > 1) System.out.println("ShotModelFitter: Skipping line " + lineNumber + " (" + line + ")");
+            }
+        }
+    }
+
+    public void addShot(double hood_deg, double rps, double distance_m, boolean isMade) {
+        double[] shot = {90.0 - hood_deg, rps, distance_m};
+        if (isMade) {
+            made.add(shot);
+        } else {
+            missed.add(shot);
+        }
+    }
+
+    // ========== FIT ==========
+
+    /**
+     * Levenberg-Marquardt fit starting from (and regularized towards) the default model.
+     * @return the fitted model, or null if there are too few made shots
+     */
+    public ShotModel fit() {
+        if (made.size() < MIN_MADE_SHOTS) {
+            System.out.println("ShotModelFitter: Need at least " + MIN_MADE_SHOTS + " made shots, have " + made.size());
+            return null;
+        }
+
+        double[] prior = toParams(ShotModel.DEFAULT);
+        double[] p = prior.clone();
+        int m = made.size() + PARAM_COUNT;
+        double[] r = new double[m];
+        double[] rTrial = new double[m];
+        double[][] jac = new double[m][PARAM_COUNT];
+        double cost = residuals(p, prior, r);
+        System.out.printf("ShotModelFitter: %d made, %d missed; start RMS %.3fm%n",
+                          made.size(), missed.size(), landingRms(p));
+
+        double lambda = 1e-2;
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            // Forward-difference Jacobian, one batch per parameter
+            for (int j = 0; j < PARAM_COUNT; j++) {
+                double[] pStep = p.clone();
+                pStep[j] += JACOBIAN_STEP[j];
+                residuals(pStep, prior, rTrial);
+                for (int i = 0; i < m; i++) jac[i][j] = (rTrial[i] - r[i]) / JACOBIAN_STEP[j];
+            }
+
+            double[][] a = new double[PARAM_COUNT][PARAM_COUNT];
+            double[] g = new double[PARAM_COUNT];
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < PARAM_COUNT; j++) {
+                    g[j] += jac[i][j] * r[i];
+                    for (int k = 0; k < PARAM_COUNT; k++) a[j][k] += jac[i][j] * jac[i][k];
+                }
+            }
+
+            // Damped step; grow the damping until the cost goes down
+            boolean improved = false;
+            double[] pTrial = new double[PARAM_COUNT];
+            while (lambda < 1e8) {
+                double[][] damped = new double[PARAM_COUNT][];
+                double[] rhs = new double[PARAM_COUNT];
+                for (int j = 0; j < PARAM_COUNT; j++) {
+                    damped[j] = a[j].clone();
+                    damped[j][j] += lambda * Math.max(a[j][j], 1e-12);
+                    rhs[j] = -g[j];
+                }
+                double[] step = solve(damped, rhs);
+                for (int j = 0; j < PARAM_COUNT; j++) {
+                    pTrial[j] = Math.max(PARAM_MIN[j], Math.min(PARAM_MAX[j], p[j] + (step != null ? step[j] : 0)));
+                }
+                double trialCost = (step != null) ? residuals(pTrial, prior, rTrial) : Double.POSITIVE_INFINITY;
+                if (trialCost < cost) {
+                    improved = cost - trialCost > 1e-9 * cost;
+                    System.arraycopy(pTrial, 0, p, 0, PARAM_COUNT);
+                    System.arraycopy(rTrial, 0, r, 0, m);
+                    cost = trialCost;
+                    lambda = Math.max(1e-7, lambda / 3);
+                    break;
+                }
+                lambda *= 4;
+            }
+            if (!improved) break;
+        }
+
+        ShotModel model = toModel(p);
+        System.out.printf("ShotModelFitter: Fitted %s, RMS %.3fm%n", model, landingRms(p));
+        reportUncertainty(jac);
+        reportMisses(p);
+        return model;
+    }
+
+    /**
+     * Fills r with the scaled landing residuals of the made shots followed by the prior residuals.
+     * @return sum of squares
+     */
+    private double residuals(double[] p, double[] prior, double[] r) {
+        simulateShots(p, made);
+        int n = made.size();
+        double cost = 0;
+        for (int i = 0; i < n; i++) {
+            r[i] = landingError(i, made.get(i)[2]) / RESIDUAL_SIGMA_M;
+            cost += r[i] * r[i];
+        }
+        for (int j = 0; j < PARAM_COUNT; j++) {
+            r[n + j] = (p[j] - prior[j]) / PRIOR_SIGMA[j];
+            cost += r[n + j] * r[n + j];
+        }
+        return cost;
+    }
+
+    /**
+     * Runs every shot in the list through the engine as one batch.
+     */
+    private void simulateShots(double[] p, List<double[]> shots) {
+        engine.setShotModel(toModel(p));
+        double maxDistance = 0;
+        for (int i = 0; i < shots.size(); i++) {
+            double[] shot = shots.get(i);
+            engine.setLane(i, rpsToVelocity(shot[1], p[0]), shot[0]);
+            maxDistance = Math.max(maxDistance, shot[2]);
+        }
+        engine.setEvents(Double.POSITIVE_INFINITY, Double.NaN, HubShooterTrajectoryCalc.TARGET_HEIGHT_M);
+        engine.setLimits(0.0, maxDistance + 5.0, 5.0);
+        engine.simulate(shots.size());
+    }
+
+    /**
+     * Target-height crossing minus the logged distance. Lanes that never came down through
+     * the target height count from where they stopped, which is at least the right sign.
+     */
+    private double landingError(int lane, double distance_m) {
+        double landX = engine.getLandingXM(lane);
+        return (landX >= 0 ? landX : engine.getFinalXM(lane)) - distance_m;
+    }
+
+    private double landingRms(double[] p) {
+        simulateShots(p, made);
+        double sum = 0;
+        for (int i = 0; i < made.size(); i++) {
+            double e = landingError(i, made.get(i)[2]);
+            sum += e * e;
+        }
+        return Math.sqrt(sum / made.size());
+    }
+
+    /**
+     * One-sigma parameter uncertainty from the final Jacobian (Gauss-Newton covariance).
+     */
+    private void reportUncertainty(double[][] jac) {
+        double[][] a = new double[PARAM_COUNT][PARAM_COUNT];
+        for (double[] row : jac) {
+            for (int j = 0; j < PARAM_COUNT; j++) {
+                for (int k = 0; k < PARAM_COUNT; k++) a[j][k] += row[j] * row[k];
+            }
+        }
+        StringBuilder sb = new StringBuilder("ShotModelFitter: 1-sigma");
+        for (int j = 0; j < PARAM_COUNT; j++) {
+            double[] unit = new double[PARAM_COUNT];
+            unit[j] = 1.0;
+            double[] col = solve(copy(a), unit);
+            sb.append(String.format(" %s=%.4f", PARAM_NAMES[j], col != null ? Math.sqrt(Math.max(0, col[j])) : Double.NaN));
+        }
+        System.out.println(sb);
+    }
+
+    /**
+     * Misses the fitted model would have called makes point at a bad log entry or at
+     * something the model doesn't cover (feed, wobble, hood backlash).
+     */
+    private void reportMisses(double[] p) {
+        if (missed.isEmpty()) return;
+        simulateShots(p, missed);
+        int unexplained = 0;
+        for (int i = 0; i < missed.size(); i++) {
+            if (Math.abs(landingError(i, missed.get(i)[2])) < HubShooterTrajectoryCalc.TARGET_TOLERANCE_M) unexplained++;
+        }
+        System.out.printf("ShotModelFitter: %d of %d misses land within tolerance under the fitted model%n",
+                          unexplained, missed.size());
+    }
+
+    // ========== HELPERS ==========
+
+    private static double rpsToVelocity(double rps, double slip) {
+        return Math.PI * HubShooterTrajectoryCalc.ROLLER_DIAMETER_M * rps * slip;
+    }
+
+    private static double[] toParams(ShotModel model) {
+        return new double[] {model.slipFactor, model.dragCoeff, model.dragSpeedSlope, model.launchLiftCoeff};
+    }
+
+    private static ShotModel toModel(double[] p) {
+        return new ShotModel(p[1], p[2], p[3], p[0], true);
+    }
+
+    private static double[][] copy(double[][] a) {
+        double[][] out = new double[a.length][];
+        for (int i = 0; i < a.length; i++) out[i] = a[i].clone();
+        return out;
+    }
+
+    /**
+     * Gaussian elimination with partial pivoting; overwrites a and b.
+     * @return x with a x = b, or null if a is singular
+     */
+    private static double[] solve(double[][] a, double[] b) {
+        int n = b.length;
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) pivot = row;
+            }
+            if (Math.abs(a[pivot][col]) < 1e-15) return null;
+            double[] swapRow = a[col]; a[col] = a[pivot]; a[pivot] = swapRow;
+            double swap = b[col]; b[col] = b[pivot]; b[pivot] = swap;
+            for (int row = col + 1; row < n; row++) {
+                double f = a[row][col] / a[col][col];
+                for (int k = col; k < n; k++) a[row][k] -= f * a[col][k];
+                b[row] -= f * b[col];
+            }
+        }
+        double[] x = new double[n];
+        for (int row = n - 1; row >= 0; row--) {
+            double sum = b[row];
+            for (int k = row + 1; k < n; k++) sum -= a[row][k] * x[k];
+            x[row] = sum / a[row][row];
+        }
+        return x;
+    }
+
+    // ========== MAIN ==========
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ShotModelFitter <shots.csv> [--out shot_model.properties]"
+                               + " [--cache trajectory_cache.bin] [--height 0.533]");
+            return;
+        }
+        Path log = Paths.get(args[0]);
+        Path out = Paths.get(HubShooterTrajectoryCalc.DEPLOY_MODEL_FILE_NAME);
+        Path cache = null;
+        double height_m = 0.533;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--out": out = Paths.get(args[i + 1]); break;
+                case "--cache": cache = Paths.get(args[i + 1]); break;
+                case "--height": height_m = Double.parseDouble(args[i + 1]); break;
+                default: System.out.println("ShotModelFitter: Unknown option " + args[i]);
+            }
+        }
+
+        ShotModelFitter fitter = new ShotModelFitter(height_m);
+        fitter.load(log);
+        ShotModel model = fitter.fit();
+        if (model == null) {
+            System.exit(1);
+        }
+        model.save(out, "Fitted by ShotModelFitter from " + log.getFileName());
+        System.out.println("ShotModelFitter: Wrote " + out);
+
+        if (cache != null) {
+            // Rebuild the hub table with the fitted model (same as generateTrajectoryCache)
+            HubShooterTrajectoryCalc.setShotModel(model);
+            HubShooterTrajectoryCalc.generateCacheFile(cache);
+            System.out.println("ShotModelFitter: Rebuilt " + cache);
+            System.out.printf("%-8s %-8s %-8s%n", "Dist(m)", "Elev", "RPS");
+            HubShooterTrajectoryCalc.MutableShotSolution shot = new HubShooterTrajectoryCalc.MutableShotSolution();
+            for (double dist = 2.0; dist <= 8.0; dist += 1.0) {
+                if (HubShooterTrajectoryCalc.lookupInto(dist, shot)) {
+                    System.out.printf("%-8.1f %-8.1f %-8.1f%n", dist, shot.elevation_deg, shot.speed_rps / model.slipFactor);
+                }
+            }
+        }
+    }
+}
@@ -5,10 +5,13 @@ import java.util.function.Supplier;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.ShooterConstants;
 import frc.robot.Constants.TurretConstants;
+import frc.robot.Utils.HubShooterTrajectoryCalc.MutableShotSolution;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 
 public class ShotPredictor {
@@ -17,6 +20,15 @@ public class ShotPredictor {
     private static final Translation2d hubPosition = new Translation2d(targetX, 4.035);
     private static final Translation2d bumpLeft = new Translation2d(targetX, 6);
     private static final Translation2d bumpRight = new Translation2d(targetX, 8-6);
+    // Lookup results, reused every loop; one each so no result is read after another lookup overwrote it
+    private static final MutableShotSolution airtimeLookup = new MutableShotSolution();
+    private static final MutableShotSolution lobLookup = new MutableShotSolution();
+    private static final MutableShotSolution velocityLookup = new MutableShotSolution();
+    private static final MutableShotSolution tiltLookup = new MutableShotSolution();
+    // Tilt from the last distance the table could solve, held when it can't; starts at the flattest hood
+    private static Rotation2d lastTableTilt = Rotation2d.fromDegrees(ShooterConstants.maxDegree);
+    private static final int AIRTIME_ITERATIONS = 6; // fixed-point steps, contraction ~0.5 at full speed
+    private static double latencyBudget_s = TurretConstants.shotLatency_s;
 
     /**
      * Output of ShotPredictor: contains desired angle, velocity and speed.
@@ -32,12 +44,22 @@ public class ShotPredictor {
         public ChassisSpeeds robotVel;
     }
 
+    /**
+     * Set the time between reading the pose and the ball leaving the shooter
+     * (loop period, CAN, mechanism response). The pose is advanced by this much before aiming.
+     *
+     * @param latency_s latency budget in seconds
+     */
+    public static void setLatencyBudget(double latency_s) {
+        latencyBudget_s = latency_s;
+    }
+
     /**
      * Predict a shot given
      *
      * @param robotPoseSupplier The pose of the robot (continuous supplier)
      * @param robotVelSupplier The velocity of the robot (continuous
-     * supplier)(robot relative)
+     * supplier)(field relative)
      */
     public static Shot predict(Supplier<Pose2d> robotPoseSupplier,
             Supplier<ChassisSpeeds> robotVelSupplier) {
@@ -45,45 +67,70 @@ public class ShotPredictor {
         Shot shot = new Shot();
 
         Pose2d robotPose = robotPoseSupplier.get();
-        Translation2d robotPos = robotPose.getTranslation();
         Rotation2d robotRot = robotPose.getRotation();
         ChassisSpeeds robotVel = robotVelSupplier.get();
 
+        // latency: advance the pose along a constant-twist arc to where the ball actually leaves
+        Translation2d robotRelVel = new Translation2d(robotVel.vxMetersPerSecond, robotVel.vyMetersPerSecond)
+                .rotateBy(robotRot.unaryMinus());
+        double omega = robotVel.omegaRadiansPerSecond;
+        Pose2d launchPose = robotPose.exp(new Twist2d(
+                robotRelVel.getX() * latencyBudget_s,
+                robotRelVel.getY() * latencyBudget_s,
+                omega * latencyBudget_s));
+        Translation2d launchPos = launchPose.getTranslation();
+        Rotation2d launchRot = launchPose.getRotation();
+
+        // turret position and velocity at launch (chassis velocity + omega x turret offset)
+        Translation2d turretOffset = TurretConstants.turretPos.rotateBy(launchRot);
+        Translation2d turretPos = launchPos.plus(turretOffset);
+        Translation2d launchVel = robotRelVel.rotateBy(launchRot);
+        double turretVx = launchVel.getX() - omega * turretOffset.getY();
+        double turretVy = launchVel.getY() + omega * turretOffset.getX();
+
+        // target: the hub from our side, otherwise pass into our alliance zone (decided where the ball leaves)
+        boolean blue = DriverStation.getAlliance().get() == Alliance.Blue;
         Translation2d targetPos;
+        boolean lob = false;
 
-        if ((DriverStation.getAlliance().get() == Alliance.Blue) ? (robotPos.getX() < targetX):(robotPos.getX() > targetX)) { //?
+        if (blue ? (launchPos.getX() < targetX):(launchPos.getX() > targetX)) { //?
             targetPos = hubPosition;
-        } else if (robotPos.getY() > 4.0) {
-            targetPos = bumpLeft;
         } else {
-            targetPos = bumpRight;
+            targetPos = LobShotPlanner.selectLandingPoint(turretPos, blue);
+            if (targetPos != null) {
+                lob = true;
+            } else if (launchPos.getY() > 4.0) { // lob table not built yet or nothing reachable
+                targetPos = bumpLeft;
+            } else {
+                targetPos = bumpRight;
+            }
         }
 
-        Translation2d turretPos = robotPos.plus(TurretConstants.turretPos.rotateBy(robotRot));
-
-        double distance = targetPos.getDistance(turretPos);
-        System.out.println(distance);
-        double airtime = getAirtime(distance);
+        // airtime: fixed point of T = airtime(|target - turret - v*T|) against the trajectory table
+        double dx = targetPos.getX() - turretPos.getX();
+        double dy = targetPos.getY() - turretPos.getY();
+        double airtime = lob ? getLobAirtime(Math.hypot(dx, dy)) : getTableAirtime(Math.hypot(dx, dy));
+        for (int i = 0; i < AIRTIME_ITERATIONS; i++) {
+            double leadDist = Math.hypot(dx - turretVx * airtime, dy - turretVy * airtime);
+            airtime = lob ? getLobAirtime(leadDist) : getTableAirtime(leadDist);
+        }
+        double aimX = dx - turretVx * airtime;
+        double aimY = dy - turretVy * airtime;
+        double aimDist = Math.hypot(aimX, aimY);
 
+        // yaw is relative to the robot heading at launch
+        shot.yaw = new Rotation2d(aimX, aimY).minus(launchRot);
         shot.airtime_s = airtime;
-
-        // predict robot future pos during flight (accounts for movement, allowing empirical calculations where there would otherwise be too many variables)
-        Translation2d futureRobotPos = robotPos.plus(
-                new Translation2d(robotVel.vxMetersPerSecond, robotVel.vyMetersPerSecond).times(airtime));
-        Rotation2d futureRobotRot = robotRot.plus(
-                new Rotation2d(robotVel.omegaRadiansPerSecond).times(airtime));
-        Translation2d futureTurretPos = futureRobotPos.plus(TurretConstants.turretPos.rotateBy(futureRobotRot));
-
-        // yaw calculation
-        Translation2d delta = targetPos.minus(futureTurretPos);
-        Rotation2d fieldAngleToTarget = delta.getAngle();
-        shot.yaw = fieldAngleToTarget.minus(futureRobotRot);
-
-        // horizontal distance (adjusted by airtime)
-        double futureDist = delta.getNorm();
-
-        shot.velocity_rPs = getVelocity(futureDist);
-        shot.tilt = getTilt(futureDist);
+        if (lob && LobShotPlanner.lookup(aimDist, LobShotPlanner.LANDING_HEIGHT_M, lobLookup)) {
+            shot.velocity_rPs = lobLookup.speed_rps;
+            shot.tilt = new Rotation2d((90-lobLookup.elevation_deg)/180*Math.PI);
+        } else {
+            shot.velocity_rPs = getVelocity(aimDist);
+            shot.tilt = getTilt(aimDist);
+        }
+        shot.robotPos = launchPos;
+        shot.robotRot = launchRot;
+        shot.robotVel = robotVel;
 
         return shot;
     }
@@ -136,15 +183,42 @@ public class ShotPredictor {
     }*/
 
     public static double getVelocity(double dist) {
+        // With a fitted shot model the table is calibrated to the real shooter; the empirical fit stays for the default model
+        BallisticsEngine.ShotModel model = HubShooterTrajectoryCalc.getShotModel();
+        if (model.fitted && HubShooterTrajectoryCalc.lookupInto(dist, velocityLookup)) {
+            return velocityLookup.speed_rps / HubShooterTrajectoryCalc.getSlipFactor();
+        }
         return 5.22068*dist + 36.08701;//HubShooterTrajectoryCalc.lookupCache(dist).speed_rps;
         //return 1.0;
     }
 
+    /**
+     * Hood tilt from the trajectory table. If the table has no solution at this distance the
+     * last solved tilt is held (the flattest hood angle before the first one).
+     */
     public static Rotation2d getTilt(double dist) {
-        return new Rotation2d((90-HubShooterTrajectoryCalc.lookupCache(dist).elevation_deg)/180*Math.PI);
+        if (HubShooterTrajectoryCalc.lookupInto(dist, tiltLookup)) {
+            lastTableTilt = new Rotation2d((90-tiltLookup.elevation_deg)/180*Math.PI);
+        }
+        return lastTableTilt;
         //return new Rotation2d();
     }
 
+    /**
+     * Airtime from the trajectory table, falling back to the empirical fit if the table has no solution.
+     */
+    private static double getTableAirtime(double dist) {
+        return HubShooterTrajectoryCalc.lookupInto(dist, airtimeLookup) ? airtimeLookup.airtime_s : getAirtime(dist);
+    }
+
+    /**
+     * Airtime from the lob table, falling back to the empirical fit if the table has no solution.
+     */
+    private static double getLobAirtime(double dist) {
+        return LobShotPlanner.lookup(dist, LobShotPlanner.LANDING_HEIGHT_M, airtimeLookup)
+                ? airtimeLookup.airtime_s : getAirtime(dist);
+    }
+
     public static double getAirtime(double dist) {
         return 0.177067*dist + 0.546781;
         //return 0.0;//HubShooterTrajectoryCalc.lookupCache(dist).airtime_s;
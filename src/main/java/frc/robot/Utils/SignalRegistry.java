@@ -0,0 +1,78 @@
+package frc.robot.Utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+
+/**
+ * SignalRegistry - Batched refresh of Phoenix 6 status signals.
+ *
+ * Reading a signal through its device getter (motorTFX.getVelocity()) refreshes it on its
+ * own: one JNI call and one lock per read, at whatever point in the loop it happens. Signals
+ * registered here are refreshed together once per robot loop with one
+ * BaseStatusSignal.refreshAll per CAN bus, and callers read the cached value with
+ * getValueAsDouble(), which does not refresh. Every reader in a loop sees the same sample.
+ *
+ * Usage:
+ *   velSignal = SignalRegistry.register("rio", motorTFX.getVelocity(false));  // once
+ *   SignalRegistry.refreshAll();                      // top of Robot.robotPeriodic
+ *   double vel_rPs = velSignal.getValueAsDouble();    // anywhere, no CAN/JNI work
+ */
+public class SignalRegistry {
+
+    private static final Map<String, List<BaseStatusSignal>> signalsByBus = new LinkedHashMap<>();
+    private static volatile BaseStatusSignal[][] buses = new BaseStatusSignal[0][];
+    private static volatile StatusCode lastError = StatusCode.OK;
+
+    /**
+     * Adds a signal to the per-loop refresh of its bus.
+     *
+     * @param canbus bus name the device was created on ("" and "rio" are the same bus)
+     * @param signal the signal, usually fetched with refresh = false
+     * @return the same signal, for assigning to a field
+     */
+    public static synchronized <T extends BaseStatusSignal> T register(String canbus, T signal) {
+        String bus = (canbus == null || canbus.isEmpty()) ? "rio" : canbus;
+        signalsByBus.computeIfAbsent(bus, key -> new ArrayList<>()).add(signal);
+
+        BaseStatusSignal[][] rebuilt = new BaseStatusSignal[signalsByBus.size()][];
+        int i = 0;
+        for (List<BaseStatusSignal> signals : signalsByBus.values()) {
+            rebuilt[i++] = signals.toArray(new BaseStatusSignal[0]);
+        }
+        buses = rebuilt;
+        return signal;
+    }
+
+    /**
+     * Refreshes every registered signal, one refreshAll call per bus. Call once per loop
+     * before anything reads them.
+     */
+    public static void refreshAll() {
+        for (BaseStatusSignal[] signals : buses) {
+            StatusCode status = BaseStatusSignal.refreshAll(signals);
+            if (!status.isOK()) {
+                lastError = status;
+            }
+        }
+    }
+
+    /**
+     * @return the last non-OK status returned by a refresh, OK if there never was one
+     */
+    public static StatusCode getLastError() {
+        return lastError;
+    }
+
+    public static synchronized int getSignalCount() {
+        int count = 0;
+        for (List<BaseStatusSignal> signals : signalsByBus.values()) {
+            count += signals.size();
+        }
+        return count;
+    }
+}
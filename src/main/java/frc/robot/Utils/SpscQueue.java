@@ -0,0 +1,90 @@
+package frc.robot.Utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SpscQueue - Bounded lock-free queue for exactly one producer thread and one consumer thread.
+ *
+ * A power-of-two ring with one index owned by each side. The producer writes a slot and
+ * then publishes it by advancing tail; the consumer reads a slot and then frees it by
+ * advancing head. Each side only ever writes its own index (lazySet, a release store) and
+ * reads the other's (get, an acquire load), so neither ever blocks or spins on the other.
+ * When the ring is full new items are dropped and counted rather than overwriting ones the
+ * consumer hasn't seen.
+ *
+ * Not safe for more than one producer or more than one consumer.
+ *
+ * Usage:
+ *   SpscQueue<Measurement> queue = new SpscQueue<>(64);
+ *   queue.offer(measurement);                         // producer thread
+ *   for (Measurement m; (m = queue.poll()) != null; ) // consumer thread
+ */
+public class SpscQueue<T> {
+
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();   // Next slot to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong();   // Next slot to write, written by the producer
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity slots, rounded up to a power of two
+     */
+    public SpscQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Producer side.
+     *
+     * @return false if the queue was full and the item was dropped
+     */
+    public boolean offer(T item) {
+        long t = tail.get();
+        if (t - head.get() >= buffer.length) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        buffer[(int) (t & mask)] = item;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side.
+     *
+     * @return the oldest item, or null if empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        int index = (int) (h & mask);
+        T item = (T) buffer[index];
+        buffer[index] = null;
+        head.lazySet(h + 1);
+        return item;
+    }
+
+    /**
+     * @return items waiting (approximate while the other side is running)
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @return items dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,112 @@
+package frc.robot.Utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import frc.robot.Utils.HubShooterTrajectoryCalc.MutableShotSolution;
+
+/**
+ * Round trip and rejection checks for the binary trajectory cache file.
+ */
+class HubShooterTrajectoryCalcCacheTest {
+
+    // Header layout, see HubShooterTrajectoryCalc.saveCacheToFile
+    private static final int VERSION_OFFSET = 4;
+    private static final int HASH_OFFSET = 8;
+    private static final int HEADER_BYTES = 24;
+    private static final double SHOOTER_HEIGHT_M = 0.533;
+    private static final int SAMPLES = 57;
+
+    @TempDir
+    static Path dir;
+
+    private static Path cacheFile;
+    private static double[][] built;   // Lookups from the freshly built cache
+
+    @BeforeAll
+    static void buildCache() {
+        cacheFile = dir.resolve("trajectory_cache.bin");
+        HubShooterTrajectoryCalc.generateCacheFile(cacheFile);
+        built = sample();
+    }
+
+    @Test
+    void roundTripMatchesBuiltCache() {
+        HubShooterTrajectoryCalc.clearCache();
+        assertTrue(HubShooterTrajectoryCalc.loadCacheFromFile(cacheFile, SHOOTER_HEIGHT_M));
+
+        double[][] loaded = sample();
+        for (int i = 0; i < SAMPLES; i++) {
+            for (int f = 0; f < built[i].length; f++) {
+                assertEquals(built[i][f], loaded[i][f], 0.0, "sample " + i + " field " + f);
+            }
+        }
+    }
+
+    @Test
+    void rejectsBadCrc() throws IOException {
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        bytes[HEADER_BYTES + 3] ^= 0x10;   // Inside the elevation array
+        assertFalse(HubShooterTrajectoryCalc.loadCacheFromFile(write("bad_crc.bin", bytes), SHOOTER_HEIGHT_M));
+    }
+
+    @Test
+    void rejectsStaleHash() throws IOException {
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(HASH_OFFSET, header.getInt(HASH_OFFSET) + 1);
+        assertFalse(HubShooterTrajectoryCalc.loadCacheFromFile(write("stale_hash.bin", bytes), SHOOTER_HEIGHT_M));
+    }
+
+    @Test
+    void rejectsOtherShooterHeight() {
+        assertFalse(HubShooterTrajectoryCalc.loadCacheFromFile(cacheFile, SHOOTER_HEIGHT_M + 0.05));
+    }
+
+    @Test
+    void rejectsOtherVersion() throws IOException {
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(VERSION_OFFSET, header.getInt(VERSION_OFFSET) + 1);
+        assertFalse(HubShooterTrajectoryCalc.loadCacheFromFile(write("new_version.bin", bytes), SHOOTER_HEIGHT_M));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assertFalse(HubShooterTrajectoryCalc.loadCacheFromFile(write("truncated.bin", truncated), SHOOTER_HEIGHT_M));
+    }
+
+    private static Path write(String name, byte[] bytes) throws IOException {
+        return Files.write(dir.resolve(name), bytes);
+    }
+
+    /**
+     * Lookups spread over the whole table, including points between entries.
+     */
+    private static double[][] sample() {
+        double min = HubShooterTrajectoryCalc.getCacheMinDistanceM();
+        double max = HubShooterTrajectoryCalc.getCacheMaxDistanceM();
+        MutableShotSolution shot = new MutableShotSolution();
+        double[][] out = new double[SAMPLES][];
+        for (int i = 0; i < SAMPLES; i++) {
+            HubShooterTrajectoryCalc.lookupInto(min + (max - min) * i / (SAMPLES - 1), shot);
+            out[i] = new double[] {shot.valid ? 1 : 0, shot.elevation_deg, shot.speed_rps,
+                                   shot.airtime_s, shot.peakHeight_m};
+        }
+        return out;
+    }
+}
@@ -0,0 +1,112 @@
+package frc.robot.Utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class SpscQueueTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(2, new SpscQueue<Integer>(1).capacity());
+        assertEquals(8, new SpscQueue<Integer>(8).capacity());
+        assertEquals(32, new SpscQueue<Integer>(17).capacity());
+    }
+
+    @Test
+    void pollWhenEmptyReturnsNull() {
+        SpscQueue<Integer> queue = new SpscQueue<>(4);
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+
+        queue.offer(1);
+        assertEquals(1, queue.poll());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void dropsWhenFullAndKeepsQueuedItems() {
+        SpscQueue<Integer> queue = new SpscQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertFalse(queue.offer(5));
+        assertEquals(2, queue.getDropped());
+        assertEquals(4, queue.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertNull(queue.poll());
+
+        // Space freed by polling is usable again
+        assertTrue(queue.offer(6));
+        assertEquals(6, queue.poll());
+        assertEquals(2, queue.getDropped());
+    }
+
+    @Test
+    void staysInOrderAcrossWraparound() {
+        SpscQueue<Integer> queue = new SpscQueue<>(4);
+        int next = 0;
+        int expected = 0;
+        // Uneven offer/poll counts walk the indices around the ring many times
+        for (int round = 0; round < 1000; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(queue.offer(next++));
+            }
+            for (int i = 0; i < 2; i++) {
+                assertEquals(expected++, queue.poll());
+            }
+            while (queue.size() > 1) {
+                assertEquals(expected++, queue.poll());
+            }
+        }
+        while (queue.size() > 0) {
+            assertEquals(expected++, queue.poll());
+        }
+        assertEquals(next, expected);
+        assertEquals(0, queue.getDropped());
+    }
+
+    @Test
+    void deliversInOrderBetweenThreads() throws InterruptedException {
+        final int count = 200_000;
+        SpscQueue<Integer> queue = new SpscQueue<>(64);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!queue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        Thread consumer = new Thread(() -> {
+            for (int expected = 0; expected < count; ) {
+                Integer item = queue.poll();
+                if (item == null) {
+                    Thread.yield();
+                } else if (item != expected++) {
+                    failure.set("expected " + (expected - 1) + " got " + item);
+                    return;
+                }
+            }
+        });
+        producer.start();
+        consumer.start();
+        producer.join(20_000);
+        consumer.join(20_000);
+
+        assertFalse(producer.isAlive() || consumer.isAlive(), "producer/consumer did not finish");
+        assertNull(failure.get(), failure.get());
+        assertNull(queue.poll());
+    }
+}